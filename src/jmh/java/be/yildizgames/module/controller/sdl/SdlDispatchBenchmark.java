@@ -0,0 +1,251 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package be.yildizgames.module.controller.sdl;
+
+import be.yildizgames.module.controller.Controller;
+import be.yildizgames.module.controller.ControllerListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of dispatching one cycle of button changes to the ControllerListeners.
+ * switchDispatch is the previous implementation: a loop over the 32 low bits and a switch per changed button calling
+ * every listener through a capturing lambda.
+ * tableDispatch is the current one: only the set bits are visited and the listener method is taken from the
+ * SdlButtonHandlers tables.
+ * Several listener implementations are registered so the listener calls are not monomorphic.
+ *
+ * @author Grégory Van den Borre
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SdlDispatchBenchmark {
+
+    private static final int STATES = 1024;
+
+    /**
+     * Number of buttons toggled between two consecutive states.
+     */
+    @Param({"1", "4"})
+    public int changes;
+
+    @Param({"1", "3"})
+    public int listeners;
+
+    private final SdlController controller = new SdlController("benchmark", "guid", 0);
+
+    private final Collection<ControllerListener> listenerCollection = new ArrayList<>();
+
+    private final SdlListenerList<ControllerListener> listenerList = new SdlListenerList<>(new ControllerListener[0]);
+
+    private final long[] states = new long[STATES];
+
+    private int index;
+
+    @Setup
+    public void setup() {
+        ControllerListener[] implementations = {new PressCounter(), new ReleaseCounter(), new DirectionCounter()};
+        for (int i = 0; i < this.listeners; i++) {
+            this.listenerCollection.add(implementations[i]);
+            this.listenerList.add(implementations[i]);
+        }
+        var mapped = new int[Long.bitCount(SdlButtonHandlers.MAPPED)];
+        var remaining = SdlButtonHandlers.MAPPED;
+        for (int i = 0; i < mapped.length; i++) {
+            mapped[i] = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+        }
+        var random = new SplittableRandom(42);
+        var state = 0L;
+        for (int i = 0; i < STATES; i++) {
+            var toggled = 0L;
+            while (Long.bitCount(toggled) < this.changes) {
+                toggled |= 1L << mapped[random.nextInt(mapped.length)];
+            }
+            state ^= toggled;
+            this.states[i] = state;
+        }
+    }
+
+    @Benchmark
+    public int switchDispatch() {
+        var previousState = (int) this.states[this.index];
+        this.index = (this.index + 1) & (STATES - 1);
+        var newState = (int) this.states[this.index];
+        int xor = newState ^ previousState;
+        int pressed = newState & xor;
+        int released = previousState & xor;
+        for (int i = 0; i < 32; i++) {
+            if ((pressed & (1L << i)) != 0) {
+                this.pressed(i, this.controller);
+            }
+            if ((released & (1L << i)) != 0) {
+                this.released(i, this.controller);
+            }
+        }
+        return newState;
+    }
+
+    @Benchmark
+    public long tableDispatch() {
+        var previousState = this.states[this.index];
+        this.index = (this.index + 1) & (STATES - 1);
+        var newState = this.states[this.index];
+        long xor = newState ^ previousState;
+        this.dispatchChanges(SdlButtonHandlers.PRESSED, newState & xor);
+        this.dispatchChanges(SdlButtonHandlers.RELEASED, previousState & xor);
+        return newState;
+    }
+
+    private void dispatchChanges(SdlButtonHandlers.ButtonHandler[] table, long changes) {
+        while (changes != 0) {
+            var handler = SdlButtonHandlers.get(table, Long.numberOfTrailingZeros(changes));
+            changes &= changes - 1;
+            if (handler != null) {
+                for (var listener : this.listenerList.array()) {
+                    handler.handle(listener, this.controller);
+                }
+            }
+        }
+    }
+
+    private void pressed(int button, Controller controller) {
+        switch (button) {
+            case SdlControllerEngine.SDL_BUTTON_1 -> this.listenerCollection.forEach(l -> l.controllerPress1(controller));
+            case SdlControllerEngine.SDL_BUTTON_2 -> this.listenerCollection.forEach(l -> l.controllerPress2(controller));
+            case SdlControllerEngine.SDL_BUTTON_3 -> this.listenerCollection.forEach(l -> l.controllerPress3(controller));
+            case SdlControllerEngine.SDL_BUTTON_4 -> this.listenerCollection.forEach(l -> l.controllerPress4(controller));
+            case SdlControllerEngine.SDL_BUTTON_L1 -> this.listenerCollection.forEach(l -> l.controllerPressL1(controller));
+            case SdlControllerEngine.SDL_BUTTON_R1 -> this.listenerCollection.forEach(l -> l.controllerPressR1(controller));
+            case SdlControllerEngine.SDL_BUTTON_SELECT -> this.listenerCollection.forEach(l -> l.controllerPressSelect(controller));
+            case SdlControllerEngine.SDL_BUTTON_START -> this.listenerCollection.forEach(l -> l.controllerPressStart(controller));
+            case SdlControllerEngine.SDL_DPAD_UP -> this.listenerCollection.forEach(l -> l.controllerPressUp(controller));
+            case SdlControllerEngine.SDL_DPAD_RIGHT -> this.listenerCollection.forEach(l -> l.controllerPressRight(controller));
+            case SdlControllerEngine.SDL_DPAD_DOWN -> this.listenerCollection.forEach(l -> l.controllerPressDown(controller));
+            case SdlControllerEngine.SDL_DPAD_LEFT -> this.listenerCollection.forEach(l -> l.controllerPressLeft(controller));
+            case SdlControllerEngine.SDL_BUTTON_L2 -> this.listenerCollection.forEach(l -> l.controllerPressL2(controller));
+            case SdlControllerEngine.SDL_BUTTON_R2 -> this.listenerCollection.forEach(l -> l.controllerPressR2(controller));
+            default -> {
+            }
+        }
+    }
+
+    private void released(int button, Controller controller) {
+        switch (button) {
+            case SdlControllerEngine.SDL_BUTTON_1 -> this.listenerCollection.forEach(l -> l.controllerRelease1(controller));
+            case SdlControllerEngine.SDL_BUTTON_2 -> this.listenerCollection.forEach(l -> l.controllerRelease2(controller));
+            case SdlControllerEngine.SDL_BUTTON_3 -> this.listenerCollection.forEach(l -> l.controllerRelease3(controller));
+            case SdlControllerEngine.SDL_BUTTON_4 -> this.listenerCollection.forEach(l -> l.controllerRelease4(controller));
+            case SdlControllerEngine.SDL_BUTTON_L1 -> this.listenerCollection.forEach(l -> l.controllerReleaseL1(controller));
+            case SdlControllerEngine.SDL_BUTTON_R1 -> this.listenerCollection.forEach(l -> l.controllerReleaseR1(controller));
+            case SdlControllerEngine.SDL_BUTTON_SELECT -> this.listenerCollection.forEach(l -> l.controllerReleaseSelect(controller));
+            case SdlControllerEngine.SDL_BUTTON_START -> this.listenerCollection.forEach(l -> l.controllerReleaseStart(controller));
+            case SdlControllerEngine.SDL_DPAD_UP -> this.listenerCollection.forEach(l -> l.controllerReleaseUp(controller));
+            case SdlControllerEngine.SDL_DPAD_RIGHT -> this.listenerCollection.forEach(l -> l.controllerReleaseRight(controller));
+            case SdlControllerEngine.SDL_DPAD_DOWN -> this.listenerCollection.forEach(l -> l.controllerReleaseDown(controller));
+            case SdlControllerEngine.SDL_DPAD_LEFT -> this.listenerCollection.forEach(l -> l.controllerReleaseLeft(controller));
+            case SdlControllerEngine.SDL_BUTTON_L2 -> this.listenerCollection.forEach(l -> l.controllerReleaseL2(controller));
+            case SdlControllerEngine.SDL_BUTTON_R2 -> this.listenerCollection.forEach(l -> l.controllerReleaseR2(controller));
+            default -> {
+            }
+        }
+    }
+
+    private static final class PressCounter implements ControllerListener {
+
+        private int count;
+
+        @Override
+        public void controllerPress1(Controller controller) {
+            this.count++;
+        }
+
+        @Override
+        public void controllerPressStart(Controller controller) {
+            this.count++;
+        }
+
+        @Override
+        public void controllerPressL2(Controller controller) {
+            this.count++;
+        }
+    }
+
+    private static final class ReleaseCounter implements ControllerListener {
+
+        private int count;
+
+        @Override
+        public void controllerRelease1(Controller controller) {
+            this.count++;
+        }
+
+        @Override
+        public void controllerReleaseStart(Controller controller) {
+            this.count++;
+        }
+
+        @Override
+        public void controllerReleaseR2(Controller controller) {
+            this.count++;
+        }
+    }
+
+    private static final class DirectionCounter implements ControllerListener {
+
+        private int count;
+
+        @Override
+        public void controllerPressUp(Controller controller) {
+            this.count++;
+        }
+
+        @Override
+        public void controllerPressDown(Controller controller) {
+            this.count++;
+        }
+
+        @Override
+        public void controllerReleaseLeft(Controller controller) {
+            this.count++;
+        }
+
+        @Override
+        public void controllerReleaseRight(Controller controller) {
+            this.count++;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package be.yildizgames.module.controller.sdl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a downcall linked normally versus linked as critical, the option used by SdlNativeLibrary for the short
+ * per cycle functions.
+ * Symbols from the C library are used as targets so the native controller library does not need to be installed:
+ * getpid enters the kernel, abs does not and only measures the Java to native transition.
+ *
+ * @author Grégory Van den Borre
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-native-access=ALL-UNNAMED")
+public class SdlLinkageBenchmark {
+
+    private MethodHandle normal;
+
+    private MethodHandle critical;
+
+    private MethodHandle normalAbs;
+
+    private MethodHandle criticalAbs;
+
+    private int value = -42;
+
+    @Setup
+    public void setup() {
+        var linker = Linker.nativeLinker();
+        MemorySegment getpid = linker.defaultLookup().find("getpid").orElseThrow();
+        var descriptor = FunctionDescriptor.of(ValueLayout.JAVA_INT);
+        this.normal = linker.downcallHandle(getpid, descriptor);
+        this.critical = linker.downcallHandle(getpid, descriptor, Linker.Option.critical(false));
+        MemorySegment abs = linker.defaultLookup().find("abs").orElseThrow();
+        var absDescriptor = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.JAVA_INT);
+        this.normalAbs = linker.downcallHandle(abs, absDescriptor);
+        this.criticalAbs = linker.downcallHandle(abs, absDescriptor, Linker.Option.critical(false));
+    }
+
+    @Benchmark
+    public int normalLinkage() throws Throwable {
+        return (int) this.normal.invokeExact();
+    }
+
+    @Benchmark
+    public int criticalLinkage() throws Throwable {
+        return (int) this.critical.invokeExact();
+    }
+
+    @Benchmark
+    public int normalLinkageNoSyscall() throws Throwable {
+        return (int) this.normalAbs.invokeExact(this.value);
+    }
+
+    @Benchmark
+    public int criticalLinkageNoSyscall() throws Throwable {
+        return (int) this.criticalAbs.invokeExact(this.value);
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.controller.sdl;
+
+import be.yildizgames.module.controller.Controller;
+
+/**
+ * Receive the activation and deactivation of the actions of the current SdlActionSet.
+ *
+ * @author Grégory Van den Borre
+ */
+@FunctionalInterface
+public interface SdlActionListener {
+
+    /**
+     * Called on the poll thread at the end of the cycle where the action changed.
+     * @param controller Controller whose buttons changed.
+     * @param actions Action set the action belongs to.
+     * @param action Index of the action in the set.
+     * @param active True if the action started, false if it ended.
+     */
+    void actionChanged(Controller controller, SdlActionSet actions, int action, boolean active);
+}
@@ -0,0 +1,173 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.controller.sdl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable set of game actions bound to controller buttons.
+ * Each binding is compiled into the bit mask of its buttons, a chord binding having several bits set: the binding is
+ * satisfied when all of its buttons are pressed, and an action is active when any of its bindings is satisfied.
+ * Evaluating a controller state is one AND and one comparison per binding, giving the active actions as a bit mask
+ * where bit n is the action n.
+ * An action set is given to SdlControllerEngine.setActionSet, switching between sets, for example between a menu and
+ * the gameplay, is a single reference change.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class SdlActionSet {
+
+    /**
+     * Maximum number of actions in a set, the active actions being stored in a long.
+     */
+    public static final int MAX_ACTIONS = Long.SIZE;
+
+    private final String[] names;
+
+    /**
+     * Bit mask of the buttons of each binding.
+     */
+    private final long[] bindings;
+
+    /**
+     * Bit of the action of each binding.
+     */
+    private final long[] bindingActions;
+
+    private SdlActionSet(String[] names, long[] bindings, long[] bindingActions) {
+        super();
+        this.names = names;
+        this.bindings = bindings;
+        this.bindingActions = bindingActions;
+    }
+
+    /**
+     * @return A builder to declare the actions and their bindings.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return The number of actions.
+     */
+    public int size() {
+        return this.names.length;
+    }
+
+    /**
+     * @param action Action index, from 0 to size() - 1.
+     * @return The name of the action.
+     */
+    public String name(int action) {
+        return this.names[action];
+    }
+
+    /**
+     * @param name Action name.
+     * @return The index of the action, which is also its bit in the active actions mask, -1 if there is none.
+     */
+    public int action(String name) {
+        for (int i = 0; i < this.names.length; i++) {
+            if (this.names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param state Controller state, one bit per SDL button index.
+     * @return The active actions, one bit per action index.
+     */
+    public long evaluate(long state) {
+        var active = 0L;
+        for (int i = 0; i < this.bindings.length; i++) {
+            if ((state & this.bindings[i]) == this.bindings[i]) {
+                active |= this.bindingActions[i];
+            }
+        }
+        return active;
+    }
+
+    @Override
+    public String toString() {
+        return "SdlActionSet" + Arrays.toString(this.names);
+    }
+
+    /**
+     * Collect the bindings and compile them into an SdlActionSet.
+     * Actions get their index in their order of first declaration.
+     */
+    public static final class Builder {
+
+        private final List<String> names = new ArrayList<>();
+
+        private final List<long[]> bindings = new ArrayList<>();
+
+        private Builder() {
+            super();
+        }
+
+        /**
+         * Bind an action to a button, or to a chord of buttons pressed together.
+         * An action can be bound several times, it is then active when any of its bindings is satisfied.
+         * @param action Action name.
+         * @param buttons SDL button indices, all of them must be pressed to activate the action.
+         * @return This object for chaining.
+         * @throws IllegalArgumentException If no button is given, a button is out of range or there are too many
+         * actions.
+         */
+        public Builder bind(String action, int... buttons) {
+            if (buttons.length == 0) {
+                throw new IllegalArgumentException("No button bound to " + action);
+            }
+            var mask = 0L;
+            for (var button : buttons) {
+                if (button < 0 || button >= SdlControllerEngine.SDL_BUTTON_COUNT) {
+                    throw new IllegalArgumentException("Invalid button " + button + " bound to " + action);
+                }
+                mask |= 1L << button;
+            }
+            var index = this.names.indexOf(action);
+            if (index < 0) {
+                if (this.names.size() == MAX_ACTIONS) {
+                    throw new IllegalArgumentException("An action set cannot hold more than " + MAX_ACTIONS + " actions");
+                }
+                index = this.names.size();
+                this.names.add(action);
+            }
+            this.bindings.add(new long[]{mask, 1L << index});
+            return this;
+        }
+
+        /**
+         * @return The compiled action set.
+         */
+        public SdlActionSet build() {
+            var masks = new long[this.bindings.size()];
+            var actions = new long[this.bindings.size()];
+            for (int i = 0; i < masks.length; i++) {
+                masks[i] = this.bindings.get(i)[0];
+                actions[i] = this.bindings.get(i)[1];
+            }
+            return new SdlActionSet(this.names.toArray(new String[0]), masks, actions);
+        }
+    }
+}
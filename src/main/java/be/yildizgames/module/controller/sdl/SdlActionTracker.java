@@ -0,0 +1,125 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.controller.sdl;
+
+import java.util.Arrays;
+
+/**
+ * Evaluate the current action set against the controller states once per cycle, poll thread only.
+ * The state and the active actions last evaluated are kept per slot, so a controller whose state did not change is
+ * skipped, and the changed actions are a xor of two masks.
+ * When the action set is switched, the actions active at that time are taken as a starting point without
+ * notification, so a button held during the switch does not trigger the actions of the new set.
+ *
+ * @author Grégory Van den Borre
+ */
+final class SdlActionTracker {
+
+    private final System.Logger logger = System.getLogger(this.getClass().getName());
+
+    private SdlActionSet evaluated;
+
+    private long[] states = new long[8];
+
+    private long[] active = new long[8];
+
+    SdlActionTracker() {
+        super();
+    }
+
+    /**
+     * Forget the last evaluation of a slot, when a controller is connected in it.
+     */
+    final void reset(int slot) {
+        this.ensureSlot(slot);
+        this.states[slot] = 0;
+        this.active[slot] = 0;
+    }
+
+    /**
+     * @param set Current action set, null if none.
+     * @param registry Connected controllers and their states.
+     * @param stateChanged True if a controller state changed during the cycle.
+     * @param listeners Listeners to notify.
+     */
+    final void update(SdlActionSet set, SdlControllerRegistry registry, boolean stateChanged, SdlActionListener[] listeners) {
+        var switched = set != this.evaluated;
+        if (!switched && (set == null || !stateChanged)) {
+            return;
+        }
+        this.evaluated = set;
+        this.ensureSlot(registry.limit() - 1);
+        for (int slot = 0; slot < registry.limit(); slot++) {
+            var controller = registry.controller(slot);
+            if (controller == null) {
+                continue;
+            }
+            var state = registry.state(slot);
+            if (!switched && state == this.states[slot]) {
+                continue;
+            }
+            this.states[slot] = state;
+            var now = set == null ? 0L : set.evaluate(state);
+            var changes = switched ? 0L : now ^ this.active[slot];
+            this.active[slot] = now;
+            controller.activeActions = now;
+            this.notify(controller, set, changes, now, listeners);
+        }
+    }
+
+    /**
+     * End the actions still active for a controller being disconnected, so no action stays stuck.
+     * @param slot Slot the controller was registered in.
+     * @param controller Controller being disconnected.
+     * @param listeners Listeners to notify.
+     */
+    final void disconnected(int slot, SdlController controller, SdlActionListener[] listeners) {
+        if (slot < 0 || slot >= this.active.length) {
+            return;
+        }
+        var ended = this.active[slot];
+        this.states[slot] = 0;
+        this.active[slot] = 0;
+        controller.activeActions = 0;
+        if (this.evaluated != null) {
+            this.notify(controller, this.evaluated, ended, 0L, listeners);
+        }
+    }
+
+    private void notify(SdlController controller, SdlActionSet set, long changes, long now, SdlActionListener[] listeners) {
+        while (changes != 0) {
+            var action = Long.numberOfTrailingZeros(changes);
+            changes &= changes - 1;
+            var started = (now & (1L << action)) != 0;
+            for (var listener : listeners) {
+                try {
+                    listener.actionChanged(controller, set, action, started);
+                } catch (Throwable e) {
+                    this.logger.log(System.Logger.Level.ERROR, "", e);
+                }
+            }
+        }
+    }
+
+    private void ensureSlot(int slot) {
+        if (slot >= this.states.length) {
+            var size = Math.max(slot + 1, this.states.length * 2);
+            this.states = Arrays.copyOf(this.states, size);
+            this.active = Arrays.copyOf(this.active, size);
+        }
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package be.yildizgames.module.controller.sdl;
+
+import be.yildizgames.module.controller.ControllerListener;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Deliver the controller events to the listeners on an executor instead of the poll thread.
+ * The poll thread only encodes the events in a bounded queue and schedules a drain task, so the time spent in the
+ * listeners does not delay the sampling. Connection and disconnection events are never dropped, whatever the policy.
+ *
+ * @author Grégory Van den Borre
+ */
+final class SdlAsyncDispatcher {
+
+    private static final long BLOCK_PARK_NANOS = 50_000L;
+
+    private final System.Logger logger = System.getLogger(this.getClass().getName());
+
+    private final SdlEventQueue queue;
+
+    private final Executor executor;
+
+    private final SdlOverflowPolicy policy;
+
+    private final SdlListenerList<ControllerListener> listeners;
+
+    private final SdlButtonSubscriptions buttonSubscriptions;
+
+    private final SdlListenerList<SdlButtonEventListener> buttonEventListeners;
+
+    private final SdlButtonEvent buttonEvent = new SdlButtonEvent();
+
+    private final SdlControllerRegistry registry;
+
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private final Runnable drainTask = this::drain;
+
+    private final SdlEventQueue.EventConsumer deliverer = this::deliver;
+
+    /**
+     * State of each slot as known by the listeners, only used with the COALESCE policy.
+     */
+    private long[] delivered = new long[8];
+
+    /**
+     * Slots having changes held back, only used with the COALESCE policy.
+     */
+    private boolean[] heldBack = new boolean[8];
+
+    private boolean heldBackPending;
+
+    private volatile boolean closed;
+
+    /**
+     * Set when the executor rejected the drain task, the events are then discarded instead of retrying.
+     */
+    private volatile boolean rejected;
+
+    SdlAsyncDispatcher(Executor executor, SdlOverflowPolicy policy, int capacity, SdlListenerList<ControllerListener> listeners, SdlButtonSubscriptions buttonSubscriptions, SdlListenerList<SdlButtonEventListener> buttonEventListeners, SdlControllerRegistry registry) {
+        super();
+        this.executor = executor;
+        this.policy = policy;
+        this.queue = new SdlEventQueue(capacity);
+        this.listeners = listeners;
+        this.buttonSubscriptions = buttonSubscriptions;
+        this.buttonEventListeners = buttonEventListeners;
+        this.registry = registry;
+    }
+
+    final void connected(SdlController controller, long nanoTime) {
+        this.ensureSlot(controller.slot);
+        this.delivered[controller.slot] = 0;
+        this.heldBack[controller.slot] = false;
+        this.put(SdlInputEvent.encode(SdlInputEvent.TYPE_CONNECTED, controller.slot, 0, false, nanoTime), nanoTime, SdlButtonEvent.NO_TIMESTAMP, controller, true);
+    }
+
+    final void disconnected(SdlController controller, int slot, long nanoTime) {
+        this.ensureSlot(slot);
+        this.heldBack[slot] = false;
+        this.put(SdlInputEvent.encode(SdlInputEvent.TYPE_DISCONNECTED, slot, 0, false, nanoTime), nanoTime, SdlButtonEvent.NO_TIMESTAMP, controller, true);
+    }
+
+    final void button(SdlController controller, int button, boolean pressed, long nanoTime, long sdlTimestamp) {
+        var slot = controller.slot;
+        var event = SdlInputEvent.encode(SdlInputEvent.TYPE_BUTTON, slot, button, pressed, nanoTime);
+        if (this.policy != SdlOverflowPolicy.COALESCE) {
+            this.put(event, nanoTime, sdlTimestamp, controller, this.policy == SdlOverflowPolicy.BLOCK);
+            return;
+        }
+        this.ensureSlot(slot);
+        if (this.heldBack[slot] || !this.queue.offer(event, nanoTime, sdlTimestamp, controller)) {
+            this.heldBack[slot] = true;
+            this.heldBackPending = true;
+        } else {
+            this.delivered[slot] = pressed ? this.delivered[slot] | (1L << button) : this.delivered[slot] & ~(1L << button);
+        }
+    }
+
+    /**
+     * Queue the changes held back if there is room, and make sure the queued events will be delivered.
+     */
+    final void endCycle(long nanoTime) {
+        if (this.heldBackPending) {
+            this.flushHeldBack(nanoTime);
+        }
+        if (!this.queue.isEmpty()) {
+            this.schedule();
+        }
+    }
+
+    /**
+     * Stop queuing events, can be called from any thread. A poll thread blocked on a full queue gives up the event.
+     */
+    final void close() {
+        this.closed = true;
+    }
+
+    private void put(long event, long nanoTime, long sdlTimestamp, SdlController controller, boolean block) {
+        while (!this.queue.offer(event, nanoTime, sdlTimestamp, controller)) {
+            if (this.closed || this.rejected || Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            if (block) {
+                this.schedule();
+                LockSupport.parkNanos(BLOCK_PARK_NANOS);
+            } else if (!this.queue.dropOldestButton()) {
+                // The oldest entry is a connection event, which must be delivered: the new button event is dropped.
+                return;
+            }
+        }
+    }
+
+    private void flushHeldBack(long nanoTime) {
+        this.heldBackPending = false;
+        for (int slot = 0; slot < this.registry.limit() && slot < this.heldBack.length; slot++) {
+            if (!this.heldBack[slot]) {
+                continue;
+            }
+            var controller = this.registry.controller(slot);
+            if (controller == null) {
+                this.heldBack[slot] = false;
+                continue;
+            }
+            var current = this.registry.state(slot);
+            var changes = this.delivered[slot] ^ current;
+            // Queue as many changes as there is room for, the others stay held back to the next cycles, so a slot
+            // with more changes than the queue capacity still makes progress.
+            while (changes != 0) {
+                var bit = Long.lowestOneBit(changes);
+                var button = Long.numberOfTrailingZeros(bit);
+                var pressed = (current & bit) != 0;
+                if (!this.queue.offer(SdlInputEvent.encode(SdlInputEvent.TYPE_BUTTON, slot, button, pressed, nanoTime), nanoTime, SdlButtonEvent.NO_TIMESTAMP, controller)) {
+                    break;
+                }
+                this.delivered[slot] ^= bit;
+                changes &= changes - 1;
+            }
+            if (changes == 0) {
+                this.heldBack[slot] = false;
+            } else {
+                this.heldBackPending = true;
+            }
+        }
+    }
+
+    private void ensureSlot(int slot) {
+        if (slot >= this.delivered.length) {
+            var size = Math.max(slot + 1, this.delivered.length * 2);
+            this.delivered = Arrays.copyOf(this.delivered, size);
+            this.heldBack = Arrays.copyOf(this.heldBack, size);
+        }
+    }
+
+    /**
+     * Submit the drain task if it is not already pending. Once the executor rejected it, it is never submitted again
+     * and the events are discarded, as for a closed dispatcher.
+     */
+    private void schedule() {
+        if (this.rejected) {
+            return;
+        }
+        if (this.scheduled.compareAndSet(false, true)) {
+            try {
+                this.executor.execute(this.drainTask);
+            } catch (RejectedExecutionException e) {
+                this.rejected = true;
+                this.logger.log(System.Logger.Level.ERROR, "Listener executor rejected the event dispatch, the next events are discarded.", e);
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            this.queue.drain(this.deliverer);
+        } finally {
+            this.scheduled.set(false);
+        }
+        if (!this.queue.isEmpty()) {
+            this.schedule();
+        }
+    }
+
+    private void deliver(long event, long sampleNanos, long sdlTimestamp, SdlController controller) {
+        try {
+            switch (SdlInputEvent.type(event)) {
+                case SdlInputEvent.TYPE_CONNECTED -> {
+                    for (var listener : this.listeners.array()) {
+                        listener.controllerConnected(controller);
+                    }
+                    for (var subscription : this.buttonSubscriptions.all()) {
+                        if (subscription.source() != null && subscription.accepts(controller)) {
+                            subscription.source().controllerConnected(controller);
+                        }
+                    }
+                }
+                case SdlInputEvent.TYPE_DISCONNECTED -> {
+                    for (var listener : this.listeners.array()) {
+                        listener.controllerDisconnected(controller);
+                    }
+                    for (var subscription : this.buttonSubscriptions.all()) {
+                        if (subscription.source() != null && subscription.accepts(controller)) {
+                            subscription.source().controllerDisconnected(controller);
+                        }
+                    }
+                }
+                default -> this.deliverButton(controller, SdlInputEvent.button(event), SdlInputEvent.isPressed(event), sampleNanos, sdlTimestamp);
+            }
+        } catch (Throwable e) {
+            this.logger.log(System.Logger.Level.ERROR, "", e);
+        }
+    }
+
+    private void deliverButton(SdlController controller, int button, boolean pressed, long sampleNanos, long sdlTimestamp) {
+        var eventListeners = this.buttonEventListeners.array();
+        if (eventListeners.length > 0) {
+            this.buttonEvent.set(controller, button, pressed, sdlTimestamp, sampleNanos);
+            for (var listener : eventListeners) {
+                listener.buttonChanged(this.buttonEvent);
+                if (this.buttonEvent.isConsumed()) {
+                    return;
+                }
+            }
+        }
+        var handler = SdlButtonHandlers.get(pressed ? SdlButtonHandlers.PRESSED : SdlButtonHandlers.RELEASED, button);
+        if (handler != null) {
+            for (var listener : this.listeners.array()) {
+                handler.handle(listener, controller);
+            }
+        }
+        for (var subscription : this.buttonSubscriptions.all()) {
+            if (subscription.accepts(controller, button)) {
+                subscription.listener().onButton(controller, button, pressed, sampleNanos);
+            }
+        }
+    }
+}
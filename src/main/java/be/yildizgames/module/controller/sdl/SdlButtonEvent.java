@@ -0,0 +1,117 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.controller.sdl;
+
+import be.yildizgames.module.controller.Controller;
+
+/**
+ * Button transition with its timestamps, given to the SdlButtonEventListener.
+ * The instance is reused for every transition to avoid any allocation, it is only valid during the listener call and
+ * must be copied field by field to be kept.
+ * A listener can consume the event, the engine then stops its dispatch: the listeners with a lower priority, the
+ * SdlButtonListener and the ControllerListener are not called for it.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class SdlButtonEvent {
+
+    /**
+     * Value of the SDL timestamp when the native library did not provide one.
+     */
+    public static final long NO_TIMESTAMP = -1L;
+
+    private Controller controller;
+
+    private int button;
+
+    private boolean pressed;
+
+    private long sdlTimestamp;
+
+    private long sampleNanos;
+
+    private boolean consumed;
+
+    SdlButtonEvent() {
+        super();
+    }
+
+    final SdlButtonEvent set(Controller controller, int button, boolean pressed, long sdlTimestamp, long sampleNanos) {
+        this.controller = controller;
+        this.button = button;
+        this.pressed = pressed;
+        this.sdlTimestamp = sdlTimestamp;
+        this.sampleNanos = sampleNanos;
+        this.consumed = false;
+        return this;
+    }
+
+    /**
+     * @return The controller whose button changed.
+     */
+    public final Controller controller() {
+        return this.controller;
+    }
+
+    /**
+     * @return The SDL button index.
+     */
+    public final int button() {
+        return this.button;
+    }
+
+    /**
+     * @return True for a press, false for a release.
+     */
+    public final boolean isPressed() {
+        return this.pressed;
+    }
+
+    /**
+     * @return The timestamp of the SDL event, in milliseconds since SDL initialization, or NO_TIMESTAMP when the
+     * transition was detected by polling the controller state.
+     */
+    public final long sdlTimestamp() {
+        return this.sdlTimestamp;
+    }
+
+    /**
+     * @return The System.nanoTime at which the engine sampled the transition.
+     */
+    public final long sampleNanos() {
+        return this.sampleNanos;
+    }
+
+    /**
+     * Stop the dispatch of this event after the current listener.
+     */
+    public final void consume() {
+        this.consumed = true;
+    }
+
+    /**
+     * @return true if a listener consumed this event.
+     */
+    public final boolean isConsumed() {
+        return this.consumed;
+    }
+
+    @Override
+    public final String toString() {
+        return (this.pressed ? "Pressed " : "Released ") + this.button + " at " + this.sampleNanos;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package be.yildizgames.module.controller.sdl;
+
+import be.yildizgames.module.controller.Controller;
+import be.yildizgames.module.controller.ControllerListener;
+
+/**
+ * Per button tables of the ControllerListener methods to call on a press or a release, indexed by SDL button index.
+ * The handlers are non capturing method references, so dispatching through the tables does not allocate.
+ * A null entry means the button has no dedicated listener method.
+ *
+ * @author Grégory Van den Borre
+ */
+final class SdlButtonHandlers {
+
+    static final ButtonHandler[] PRESSED = new ButtonHandler[Long.SIZE];
+
+    static final ButtonHandler[] RELEASED = new ButtonHandler[Long.SIZE];
+
+    /**
+     * Bit mask of the buttons having a listener method.
+     */
+    static final long MAPPED;
+
+    static {
+        PRESSED[SdlControllerEngine.SDL_BUTTON_1] = ControllerListener::controllerPress1;
+        PRESSED[SdlControllerEngine.SDL_BUTTON_2] = ControllerListener::controllerPress2;
+        PRESSED[SdlControllerEngine.SDL_BUTTON_3] = ControllerListener::controllerPress3;
+        PRESSED[SdlControllerEngine.SDL_BUTTON_4] = ControllerListener::controllerPress4;
+        PRESSED[SdlControllerEngine.SDL_BUTTON_L1] = ControllerListener::controllerPressL1;
+        PRESSED[SdlControllerEngine.SDL_BUTTON_R1] = ControllerListener::controllerPressR1;
+        PRESSED[SdlControllerEngine.SDL_BUTTON_SELECT] = ControllerListener::controllerPressSelect;
+        PRESSED[SdlControllerEngine.SDL_BUTTON_START] = ControllerListener::controllerPressStart;
+        PRESSED[SdlControllerEngine.SDL_DPAD_UP] = ControllerListener::controllerPressUp;
+        PRESSED[SdlControllerEngine.SDL_DPAD_RIGHT] = ControllerListener::controllerPressRight;
+        PRESSED[SdlControllerEngine.SDL_DPAD_DOWN] = ControllerListener::controllerPressDown;
+        PRESSED[SdlControllerEngine.SDL_DPAD_LEFT] = ControllerListener::controllerPressLeft;
+        PRESSED[SdlControllerEngine.SDL_BUTTON_L2] = ControllerListener::controllerPressL2;
+        PRESSED[SdlControllerEngine.SDL_BUTTON_R2] = ControllerListener::controllerPressR2;
+
+        RELEASED[SdlControllerEngine.SDL_BUTTON_1] = ControllerListener::controllerRelease1;
+        RELEASED[SdlControllerEngine.SDL_BUTTON_2] = ControllerListener::controllerRelease2;
+        RELEASED[SdlControllerEngine.SDL_BUTTON_3] = ControllerListener::controllerRelease3;
+        RELEASED[SdlControllerEngine.SDL_BUTTON_4] = ControllerListener::controllerRelease4;
+        RELEASED[SdlControllerEngine.SDL_BUTTON_L1] = ControllerListener::controllerReleaseL1;
+        RELEASED[SdlControllerEngine.SDL_BUTTON_R1] = ControllerListener::controllerReleaseR1;
+        RELEASED[SdlControllerEngine.SDL_BUTTON_SELECT] = ControllerListener::controllerReleaseSelect;
+        RELEASED[SdlControllerEngine.SDL_BUTTON_START] = ControllerListener::controllerReleaseStart;
+        RELEASED[SdlControllerEngine.SDL_DPAD_UP] = ControllerListener::controllerReleaseUp;
+        RELEASED[SdlControllerEngine.SDL_DPAD_RIGHT] = ControllerListener::controllerReleaseRight;
+        RELEASED[SdlControllerEngine.SDL_DPAD_DOWN] = ControllerListener::controllerReleaseDown;
+        RELEASED[SdlControllerEngine.SDL_DPAD_LEFT] = ControllerListener::controllerReleaseLeft;
+        RELEASED[SdlControllerEngine.SDL_BUTTON_L2] = ControllerListener::controllerReleaseL2;
+        RELEASED[SdlControllerEngine.SDL_BUTTON_R2] = ControllerListener::controllerReleaseR2;
+        var mapped = 0L;
+        for (int i = 0; i < PRESSED.length; i++) {
+            if (PRESSED[i] != null || RELEASED[i] != null) {
+                mapped |= 1L << i;
+            }
+        }
+        MAPPED = mapped;
+    }
+
+    private SdlButtonHandlers() {
+        super();
+    }
+
+    /**
+     * @param table PRESSED or RELEASED.
+     * @param button SDL button index.
+     * @return The handler for the button, null if there is none.
+     */
+    static ButtonHandler get(ButtonHandler[] table, int button) {
+        return button >= 0 && button < table.length ? table[button] : null;
+    }
+
+    /**
+     * Adapt a ControllerListener to the single method button listener.
+     * @param listener Listener to call.
+     * @return A button listener calling the listener method matching the button.
+     */
+    static SdlButtonListener adapt(ControllerListener listener) {
+        return (controller, button, pressed, nanoTime) -> {
+            var handler = get(pressed ? PRESSED : RELEASED, button);
+            if (handler != null) {
+                handler.handle(listener, controller);
+            }
+        };
+    }
+
+    @FunctionalInterface
+    interface ButtonHandler {
+
+        void handle(ControllerListener listener, Controller controller);
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.controller.sdl;
+
+import be.yildizgames.module.controller.Controller;
+
+/**
+ * Receive every button transition through a single method, the button being given as its SDL index.
+ * Listeners can map buttons with tables instead of implementing one method per button, and the engine calls them
+ * from a single call site.
+ *
+ * @author Grégory Van den Borre
+ */
+@FunctionalInterface
+public interface SdlButtonListener {
+
+    /**
+     * Called for each button press or release.
+     * @param controller Controller whose button changed.
+     * @param buttonIndex SDL button index, from 0 to SdlControllerEngine.SDL_BUTTON_COUNT - 1.
+     * @param pressed True for a press, false for a release.
+     * @param timestampNanos System.nanoTime at which the engine sampled the transition.
+     */
+    void onButton(Controller controller, int buttonIndex, boolean pressed, long timestampNanos);
+}
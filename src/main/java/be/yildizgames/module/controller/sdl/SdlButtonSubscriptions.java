@@ -0,0 +1,185 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.controller.sdl;
+
+import be.yildizgames.module.controller.Controller;
+import be.yildizgames.module.controller.ControllerListener;
+
+import java.util.Arrays;
+
+/**
+ * Button listeners registered with a controller filter and a button interest mask.
+ * The subscriptions are published as an immutable array, so they can be added and removed from any thread.
+ * The poll thread compiles them into one table per controller slot, holding only the listeners matching the
+ * controller of that slot: dispatching a button is then a single mask test per listener of the slot.
+ * The tables are compiled again when a subscription changes or a controller is connected or disconnected.
+ * The controller filter compares instances: SDL gives a new instance to a controller connected again, so a filtered
+ * subscription ends with its controller and must be registered again for the new instance.
+ *
+ * @author Grégory Van den Borre
+ */
+final class SdlButtonSubscriptions {
+
+    /**
+     * Interest mask matching every button.
+     */
+    static final long ALL_BUTTONS = -1L;
+
+    private static final Subscription[] NONE = new Subscription[0];
+
+    private static final SdlButtonListener[] NO_LISTENER = new SdlButtonListener[0];
+
+    private static final long[] NO_MASK = new long[0];
+
+    private volatile Subscription[] subscriptions = NONE;
+
+    /**
+     * Incremented after each change of the subscriptions.
+     */
+    private volatile int version;
+
+    /**
+     * Version of the compiled tables, only used by the poll thread, -1 to force a compilation.
+     */
+    private int compiledVersion = -1;
+
+    private SdlButtonListener[][] listenersBySlot = new SdlButtonListener[0][];
+
+    private long[][] masksBySlot = new long[0][];
+
+    SdlButtonSubscriptions() {
+        super();
+    }
+
+    /**
+     * Register a listener.
+     * @param listener Listener to call.
+     * @param controller Only call the listener for this controller, null for any controller.
+     * @param mask Bit mask of the SDL button indices to call the listener for.
+     * @param source ControllerListener wrapped by the listener, to notify of connections, null if none.
+     */
+    final synchronized void add(SdlButtonListener listener, Controller controller, long mask, ControllerListener source) {
+        var current = this.subscriptions;
+        var updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = new Subscription(listener, controller, mask, source);
+        this.subscriptions = updated;
+        this.version++;
+    }
+
+    /**
+     * Remove every subscription of a listener.
+     * @param listener Button listener, or ControllerListener wrapped by a subscription.
+     * @return true if a subscription was removed.
+     */
+    final synchronized boolean remove(Object listener) {
+        var current = this.subscriptions;
+        var updated = new Subscription[current.length];
+        var count = 0;
+        for (var subscription : current) {
+            if (subscription.listener() != listener && subscription.source() != listener) {
+                updated[count++] = subscription;
+            }
+        }
+        if (count == current.length) {
+            return false;
+        }
+        this.subscriptions = count == 0 ? NONE : Arrays.copyOf(updated, count);
+        this.version++;
+        return true;
+    }
+
+    /**
+     * @return The current subscriptions, never modified.
+     */
+    final Subscription[] all() {
+        return this.subscriptions;
+    }
+
+    final boolean isEmpty() {
+        return this.subscriptions.length == 0;
+    }
+
+    /**
+     * Force the compilation of the tables before the next dispatch, poll thread only.
+     * To call when a controller is connected or disconnected.
+     */
+    final void invalidate() {
+        this.compiledVersion = -1;
+    }
+
+    /**
+     * Call the listeners interested in a transition, poll thread only.
+     */
+    final void dispatch(SdlControllerRegistry registry, SdlController controller, int button, boolean pressed, long nanoTime) {
+        var slot = controller.slot;
+        if (this.compiledVersion != this.version || slot >= this.listenersBySlot.length) {
+            this.compile(registry);
+        }
+        var listeners = this.listenersBySlot[slot];
+        var masks = this.masksBySlot[slot];
+        var bit = 1L << button;
+        for (int i = 0; i < listeners.length; i++) {
+            if ((masks[i] & bit) != 0) {
+                listeners[i].onButton(controller, button, pressed, nanoTime);
+            }
+        }
+    }
+
+    private void compile(SdlControllerRegistry registry) {
+        this.compiledVersion = this.version;
+        var all = this.subscriptions;
+        var limit = registry.limit();
+        var listeners = new SdlButtonListener[limit][];
+        var masks = new long[limit][];
+        var matching = new SdlButtonListener[all.length];
+        var matchingMasks = new long[all.length];
+        for (int slot = 0; slot < limit; slot++) {
+            var controller = registry.controller(slot);
+            var count = 0;
+            if (controller != null) {
+                for (var subscription : all) {
+                    if (subscription.accepts(controller)) {
+                        matching[count] = subscription.listener();
+                        matchingMasks[count] = subscription.mask();
+                        count++;
+                    }
+                }
+            }
+            listeners[slot] = count == 0 ? NO_LISTENER : Arrays.copyOf(matching, count);
+            masks[slot] = count == 0 ? NO_MASK : Arrays.copyOf(matchingMasks, count);
+        }
+        this.listenersBySlot = listeners;
+        this.masksBySlot = masks;
+    }
+
+    /**
+     * @param listener Listener to call.
+     * @param controller Controller filter, null for any controller.
+     * @param mask Bit mask of the SDL button indices of interest.
+     * @param source ControllerListener wrapped by the listener, null if none.
+     */
+    record Subscription(SdlButtonListener listener, Controller controller, long mask, ControllerListener source) {
+
+        boolean accepts(Controller c) {
+            return this.controller == null || this.controller == c;
+        }
+
+        boolean accepts(Controller c, int button) {
+            return (this.mask & (1L << button)) != 0 && this.accepts(c);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package be.yildizgames.module.controller.sdl;
+
+import be.yildizgames.module.controller.Controller;
+import be.yildizgames.module.controller.ControllerCurrentState;
+
+/**
+ * Controller connected through SDL.
+ *
+ * @author Grégory Van den Borre
+ */
+final class SdlController implements Controller {
+
+    private final String model;
+
+    private final String guid;
+
+    private final int id;
+
+    final SdlControllerCurrentState currentState = new SdlControllerCurrentState();
+
+    /**
+     * Index of this controller in the registry, -1 when it is not registered.
+     */
+    int slot = -1;
+
+    /**
+     * Last SDL_JoystickPowerLevel value read for this controller, refreshed at a low rate.
+     */
+    volatile int powerLevel = -1;
+
+    /**
+     * Actions of the current action set active at the last cycle, one bit per action index.
+     */
+    volatile long activeActions;
+
+    SdlController(String controllerName, String controllerGuid, int controllerId) {
+        super();
+        this.model = controllerName;
+        this.guid = controllerGuid;
+        this.id = controllerId;
+    }
+
+    @Override
+    public String model() {
+        return this.model;
+    }
+
+    @Override
+    public String guid() {
+        return this.guid;
+    }
+
+    @Override
+    public int id() {
+        return this.id;
+    }
+
+    @Override
+    public ControllerCurrentState currentState() {
+        return this.currentState;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package be.yildizgames.module.controller.sdl;
+
+import be.yildizgames.module.controller.ControllerCurrentState;
+
+/**
+ * Button state of an SDL controller, one bit per SDL button index, up to 64 buttons.
+ * The state is only written by the poll thread, and is volatile so other threads see its latest value.
+ *
+ * @author Grégory Van den Borre
+ */
+final class SdlControllerCurrentState implements ControllerCurrentState {
+
+    volatile long state;
+
+    SdlControllerCurrentState() {
+        super();
+    }
+
+    SdlControllerCurrentState(long state) {
+        super();
+        this.state = state;
+    }
+
+    /**
+     * @param button SDL button index.
+     * @return True if the button is pressed, false if released or out of range.
+     */
+    final boolean isPressed(int button) {
+        return button >= 0 && button < Long.SIZE && (this.state & (1L << button)) != 0;
+    }
+
+    @Override
+    public boolean isButton1Pressed() {
+        return this.isPressed(SdlControllerEngine.SDL_BUTTON_1);
+    }
+
+    @Override
+    public boolean isButton2Pressed() {
+        return this.isPressed(SdlControllerEngine.SDL_BUTTON_2);
+    }
+
+    @Override
+    public boolean isButton3Pressed() {
+        return this.isPressed(SdlControllerEngine.SDL_BUTTON_3);
+    }
+
+    @Override
+    public boolean isButton4Pressed() {
+        return this.isPressed(SdlControllerEngine.SDL_BUTTON_4);
+    }
+
+    @Override
+    public boolean isButtonL1Pressed() {
+        return this.isPressed(SdlControllerEngine.SDL_BUTTON_L1);
+    }
+
+    @Override
+    public boolean isButtonL2Pressed() {
+        return this.isPressed(SdlControllerEngine.SDL_BUTTON_L2);
+    }
+
+    @Override
+    public boolean isButtonR1Pressed() {
+        return this.isPressed(SdlControllerEngine.SDL_BUTTON_R1);
+    }
+
+    @Override
+    public boolean isButtonR2Pressed() {
+        return this.isPressed(SdlControllerEngine.SDL_BUTTON_R2);
+    }
+
+    @Override
+    public boolean isButtonStartPressed() {
+        return this.isPressed(SdlControllerEngine.SDL_BUTTON_START);
+    }
+
+    @Override
+    public boolean isButtonSelectPressed() {
+        return this.isPressed(SdlControllerEngine.SDL_BUTTON_SELECT);
+    }
+
+    @Override
+    public boolean isPadUpPressed() {
+        return this.isPressed(SdlControllerEngine.SDL_DPAD_UP);
+    }
+
+    @Override
+    public boolean isPadDownPressed() {
+        return this.isPressed(SdlControllerEngine.SDL_DPAD_DOWN);
+    }
+
+    @Override
+    public boolean isPadLeftPressed() {
+        return this.isPressed(SdlControllerEngine.SDL_DPAD_LEFT);
+    }
+
+    @Override
+    public boolean isPadRightPressed() {
+        return this.isPressed(SdlControllerEngine.SDL_DPAD_RIGHT);
+    }
+
+    @Override
+    public String toString() {
+        return Long.toBinaryString(this.state);
+    }
+}
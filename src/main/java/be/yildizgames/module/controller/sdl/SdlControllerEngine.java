@@ -17,7 +17,6 @@
 package be.yildizgames.module.controller.sdl;
 
 import be.yildizgames.module.controller.Controller;
-import be.yildizgames.module.controller.ControllerCurrentState;
 import be.yildizgames.module.controller.ControllerEngine;
 import be.yildizgames.module.controller.ControllerEngineStatusListener;
 import be.yildizgames.module.controller.ControllerListener;
@@ -26,22 +25,26 @@ import java.lang.foreign.Arena;
 import java.lang.foreign.FunctionDescriptor;
 import java.lang.foreign.Linker;
 import java.lang.foreign.MemorySegment;
-import java.lang.foreign.SymbolLookup;
 import java.lang.foreign.ValueLayout;
-import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
 
 /**
  * SDL implementation for the controller engine, before using this implementation it is necessary to load the native
  * libraries that are passed in the controller with System.load, sdl first, then libcontroller-sdl.
  * In Windows, the mingw runtime are also necessary before anything, first libgcc_s_seh-1.dll, then libstdc++-6.dll.
+ * The engine either runs its own poll loop in the thread calling run(), or is driven by the host calling open(), then
+ * pollOnce() from its main loop, and finally close().
  *
  * @author Grégory Van den Borre
  */
@@ -61,36 +64,205 @@ public class SdlControllerEngine implements ControllerEngine {
     public static final int SDL_DPAD_RIGHT = 14;
     public static final int SDL_DPAD_DOWN = 12;
     public static final int SDL_DPAD_LEFT = 13;
+
+    /**
+     * Number of button indices tracked per controller, the state being stored in a long.
+     */
+    public static final int SDL_BUTTON_COUNT = Long.SIZE;
+
+    /**
+     * Maximum time spent blocked in the native library in event driven mode, so a close request is noticed.
+     */
+    private static final int EVENT_WAIT_TIMEOUT_MS = 100;
+
+    /**
+     * Number of controllers the bulk state buffer can hold before it needs to grow.
+     */
+    private static final int INITIAL_STATE_BUFFER_CAPACITY = 16;
+
+    private static final long DEFAULT_HOTPLUG_INTERVAL_NANOS = 250_000_000L;
+
+    private static final long DEFAULT_METADATA_INTERVAL_NANOS = 5_000_000_000L;
+
     private final System.Logger logger = System.getLogger(this.getClass().getName());
 
     /**
      * Listeners that will be notified for every change in the engine status.
      */
-    private final Collection<ControllerEngineStatusListener> engineStatusListeners = new ArrayList<>();
+    private final SdlListenerList<ControllerEngineStatusListener> engineStatusListeners = new SdlListenerList<>(new ControllerEngineStatusListener[0]);
+
+    private final SdlListenerList<ControllerListener> controllerListeners = new SdlListenerList<>(new ControllerListener[0]);
+
+    private final SdlListenerList<SdlButtonEventListener> buttonEventListeners = new SdlListenerList<>(new SdlButtonEventListener[0]);
+
+    private final SdlButtonSubscriptions buttonSubscriptions = new SdlButtonSubscriptions();
+
+    private final SdlListenerList<SdlActionListener> actionListeners = new SdlListenerList<>(new SdlActionListener[0]);
+
+    private final SdlActionTracker actionTracker = new SdlActionTracker();
+
+    private volatile SdlActionSet actionSet;
+
+    /**
+     * Names of the controllers by GUID, loaded when the engine opens if reloadMappings was not called before.
+     */
+    private volatile SdlMappingDatabase mappings;
 
-    private final Collection<ControllerListener> controllerListeners = new ArrayList<>();
+    /**
+     * Reused for every transition dispatched on the poll thread.
+     */
+    private final SdlButtonEvent buttonEvent = new SdlButtonEvent();
 
-    private final Map<Integer, SdlController> controllers = new HashMap<>();
+    private final SdlControllerRegistry controllers = new SdlControllerRegistry();
+
+    /**
+     * Last published view of the controllers, replaced as a whole at the end of a cycle where something changed.
+     */
+    private volatile SdlControllerSnapshot snapshot = SdlControllerSnapshot.EMPTY;
+
+    /**
+     * Set when a state or the device list changed during the current cycle.
+     */
+    private boolean snapshotOutdated;
 
-    private MethodHandle updateControllerStatesFunction;
+    /**
+     * Sorted ids of the registered controllers, only the first knownIdsSize values are meaningful.
+     */
+    private int[] knownIds = new int[16];
 
-    private MethodHandle getControllerStateFunction;
+    private int knownIdsSize;
 
-    private MethodHandle getControllerNameFunction;
+    /**
+     * Buffer receiving the sorted ids reported by the native library, swapped with knownIds after each diff.
+     */
+    private int[] connectedIds = new int[16];
 
-    private MethodHandle getControllerGuidFunction;
+    private SdlNativeLibrary nativeLibrary;
 
-    private MethodHandle isControllerListChangedFunction;
+    /**
+     * Arena of the running native session, used for the buffers shared with the native library.
+     */
+    private Arena session;
 
-    private MethodHandle getControllersFunction;
+    /**
+     * Buffer filled by the bulk state function with (id, state) pairs, reused every cycle.
+     */
+    private MemorySegment stateBuffer;
 
-    private MethodHandle getControllerSizeFunction;
+    private int stateBufferCapacity;
 
     private final Path lib;
 
     private final Path sdl;
 
-    private boolean running;
+    private volatile boolean running;
+
+    /**
+     * True when the session is driven by run(), false when the host calls pollOnce() itself.
+     * Volatile as close() reads it from another thread, it is only cleared once the session is closed.
+     */
+    private volatile boolean threaded;
+
+    /**
+     * Thread running the poll loop, null when the engine is not running in its own thread.
+     */
+    private volatile Thread pollThread;
+
+    private boolean lateLatchEnabled;
+
+    /**
+     * True when the loop only samples after the native library reported an event.
+     */
+    private boolean eventDriven;
+
+    private final SdlDutySchedule hotplugDuty = new SdlDutySchedule(DEFAULT_HOTPLUG_INTERVAL_NANOS);
+
+    private final SdlDutySchedule metadataDuty = new SdlDutySchedule(DEFAULT_METADATA_INTERVAL_NANOS);
+
+    private boolean powerSave;
+
+    /**
+     * Next slot to refresh the metadata for, -1 when no refresh is in progress.
+     */
+    private int metadataCursor = -1;
+
+    private final SdlLateLatch lateLatch = new SdlLateLatch();
+
+    /**
+     * System.nanoTime of the next simulation tick, as provided by the host, 0 if unknown.
+     */
+    private volatile long tickDeadline;
+
+    /**
+     * Last tick deadline a late sample was made for.
+     */
+    private long latchedDeadline;
+
+    private SdlPollRate pollRate = SdlPollRate.HZ_60;
+
+    private SdlPollMode pollMode = SdlPollMode.FIXED_RATE;
+
+    private boolean criticalLinkage;
+
+    private Executor listenerExecutor;
+
+    private SdlOverflowPolicy overflowPolicy;
+
+    private int eventQueueCapacity;
+
+    /**
+     * Deliver the events to the listeners on the listener executor, null when they are notified on the poll thread.
+     */
+    /**
+     * Read by close() from any thread, to release a poll thread blocked on a full queue.
+     */
+    private volatile SdlAsyncDispatcher asyncDispatcher;
+
+    /**
+     * Events kept for drainEvents, null if the event drain is not enabled.
+     */
+    private volatile SdlEventQueue drainQueue;
+
+    private final SdlEventQueue.EventConsumer drainForwarder = (e, n, t, c) -> this.drainTarget.accept(e);
+
+    private LongConsumer drainTarget;
+
+    /**
+     * Controllers by slot, a disconnected controller stays in its slot until another one is connected in it.
+     * Replaced as a whole on connection.
+     */
+    private volatile Controller[] slotTable = new Controller[0];
+
+    /**
+     * System.nanoTime at the start of the current poll cycle.
+     */
+    private long cycleNanos;
+
+    private SdlInputDelivery inputDelivery = SdlInputDelivery.POLL;
+
+    /**
+     * Ring buffer shared with the native library, null if the input are not delivered that way.
+     */
+    private SdlNativeEventRing eventRing;
+
+    private final SdlNativeEventRing.TransitionConsumer transitionHandler = this::handleTransition;
+
+    /**
+     * True when the native library pushes the changes through the upcall registered in run().
+     */
+    private boolean upcallRegistered;
+
+    /**
+     * Set from the upcall when the device list changed, handled once the update call returned.
+     */
+    private boolean controllerListChanged;
+
+    /**
+     * Buttons without ControllerListener method already reported in the log, so they are only logged once.
+     */
+    private long unmappedButtons;
+
+    private volatile SdlPollScheduler scheduler = new SdlPollScheduler(this.pollRate, false);
 
     /**
      * Create an instance of the engine by providing the path of the necessary native libraries.
@@ -131,14 +303,427 @@ public class SdlControllerEngine implements ControllerEngine {
         return this;
     }
 
+    /**
+     * Unregister an engine status listener, can be called from any thread.
+     * @param l Listener to remove.
+     * @return true if the listener was registered.
+     */
+    public final boolean removeEngineStatusListener(ControllerEngineStatusListener l) {
+        return this.engineStatusListeners.remove(l);
+    }
+
     @Override
     public final void addControllerListener(ControllerListener l) {
         this.controllerListeners.add(l);
+        this.wakeUp();
+    }
+
+    /**
+     * Unregister a controller listener, with or without filter, can be called from any thread, including from a
+     * listener. The listener may still receive the event being dispatched.
+     * @param l Listener to remove.
+     * @return true if the listener was registered.
+     */
+    public final boolean removeControllerListener(ControllerListener l) {
+        var removed = this.controllerListeners.remove(l);
+        return this.buttonSubscriptions.remove(l) || removed;
     }
 
+    /**
+     * Unregister a button listener, with or without filter, can be called from any thread.
+     * @param l Listener to remove.
+     * @return true if the listener was registered.
+     */
+    public final boolean removeButtonListener(SdlButtonListener l) {
+        return this.buttonSubscriptions.remove(l);
+    }
+
+    /**
+     * Unregister a button event listener, can be called from any thread.
+     * @param l Listener to remove.
+     * @return true if the listener was registered.
+     */
+    public final boolean removeButtonEventListener(SdlButtonEventListener l) {
+        return this.buttonEventListeners.remove(l);
+    }
+
+    /**
+     * Register a listener receiving every button transition with the SDL event timestamp and the sample time.
+     * @param l Listener to add.
+     */
+    public final void addButtonEventListener(SdlButtonEventListener l) {
+        this.addButtonEventListener(l, 0);
+    }
+
+    /**
+     * Register a listener receiving every button transition, before the listeners with a lower priority.
+     * Button event listeners are called before the SdlButtonListener and ControllerListener, a listener consuming
+     * the event stops its dispatch, for example a pause menu keeping the start button from the game.
+     * @param l Listener to add.
+     * @param priority Listeners with a higher priority are called first, equal priorities keep the registration order.
+     */
+    public final void addButtonEventListener(SdlButtonEventListener l, int priority) {
+        this.buttonEventListeners.add(l, priority);
+        this.wakeUp();
+    }
+
+    /**
+     * Register a listener receiving every button transition through a single method.
+     * The ControllerListener methods are still called for the buttons they cover.
+     * @param l Listener to add.
+     */
+    public final void addButtonListener(SdlButtonListener l) {
+        this.addButtonListener(l, null, SdlButtonSubscriptions.ALL_BUTTONS);
+    }
+
+    /**
+     * Register a listener only called for some buttons of a controller.
+     * The listeners are indexed per controller, so the other controllers and buttons cost nothing to the listener.
+     * The subscription ends with the controller: a controller connected again is a new instance, the listener must be
+     * registered again for it, for example from ControllerListener.controllerConnected.
+     * @param l Listener to add.
+     * @param controller Controller to listen to, null for every controller.
+     * @param buttonMask Bit mask of the SDL button indices to listen to, bit n for button n.
+     */
+    public final void addButtonListener(SdlButtonListener l, Controller controller, long buttonMask) {
+        this.buttonSubscriptions.add(l, controller, buttonMask, null);
+        this.wakeUp();
+    }
+
+    /**
+     * Register a ControllerListener only called for some buttons of a controller, and for the connection and
+     * disconnection of that controller.
+     * The subscription ends with the controller: a controller connected again is a new instance, the listener must be
+     * registered again for it.
+     * @param l Listener to add.
+     * @param controller Controller to listen to, null for every controller.
+     * @param buttonMask Bit mask of the SDL button indices to listen to, bit n for button n.
+     */
+    public final void addControllerListener(ControllerListener l, Controller controller, long buttonMask) {
+        this.buttonSubscriptions.add(SdlButtonHandlers.adapt(l), controller, buttonMask & SdlButtonHandlers.MAPPED, l);
+        this.wakeUp();
+    }
+
+    /**
+     * Register a listener notified when an action of the current action set starts or ends.
+     * @param l Listener to add.
+     */
+    public final void addActionListener(SdlActionListener l) {
+        this.actionListeners.add(l);
+        this.wakeUp();
+    }
+
+    /**
+     * Unregister an action listener, can be called from any thread.
+     * @param l Listener to remove.
+     * @return true if the listener was registered.
+     */
+    public final boolean removeActionListener(SdlActionListener l) {
+        return this.actionListeners.remove(l);
+    }
+
+    /**
+     * Switch the action set evaluated at the end of each cycle, can be called from any thread.
+     * Actions already held when the set is switched are not notified as started.
+     * @param actions New action set, null to stop evaluating actions.
+     * @return This object for chaining.
+     */
+    public final SdlControllerEngine setActionSet(SdlActionSet actions) {
+        this.actionSet = actions;
+        this.wakeUp();
+        return this;
+    }
+
+    /**
+     * @param controller Controller provided by this engine.
+     * @return The actions of the current action set active at the last cycle, bit n for the action n.
+     */
+    public final long getActiveActions(Controller controller) {
+        return controller instanceof SdlController c ? c.activeActions : 0L;
+    }
+
+    /**
+     * Read the bundled controller mappings and the given files in the SDL gamecontrollerdb.txt format, then replace
+     * the current mappings at once. Meant to be called from any thread but the poll thread, the poll loop is not
+     * paused while the files are read.
+     * The name of a controller is resolved from the mappings when it is connected, the controllers already connected
+     * keep their name.
+     * @param files Mapping files, a later entry overrides an earlier one with the same GUID.
+     * @return This object for chaining.
+     * @throws IllegalStateException If a file cannot be read, the current mappings are then kept.
+     */
+    public final SdlControllerEngine reloadMappings(Path... files) {
+        var loaded = SdlMappingDatabase.load(List.of(files));
+        this.mappings = loaded;
+        if (this.logger.isLoggable(System.Logger.Level.DEBUG)) {
+            this.logger.log(System.Logger.Level.DEBUG, loaded.size() + " controller mappings loaded.");
+        }
+        return this;
+    }
+
+    /**
+     * @return The controllers of the latest published snapshot. A connection or disconnection is published before
+     * the listeners are notified of it, so they see it through this method.
+     */
     @Override
     public final Collection<? extends Controller> getControllers() {
-        return this.controllers.values();
+        return this.snapshot.controllers();
+    }
+
+    /**
+     * Provide a consistent view of all controllers and their states, as sampled in the same poll cycle.
+     * Can be called from any thread, never blocks.
+     * @return The latest published snapshot.
+     */
+    public final SdlControllerSnapshot getSnapshot() {
+        return this.snapshot;
+    }
+
+    /**
+     * Set the frequency used to sample the controllers, must be called before running the engine.
+     * @param rate Poll rate to use.
+     * @return This object for chaining.
+     */
+    public final SdlControllerEngine setPollRate(SdlPollRate rate) {
+        this.pollRate = Objects.requireNonNull(rate);
+        return this;
+    }
+
+    /**
+     * Set the strategy deciding when the controllers are sampled, must be called before running the engine.
+     * @param mode Poll mode to use.
+     * @return This object for chaining.
+     */
+    public final SdlControllerEngine setPollMode(SdlPollMode mode) {
+        this.pollMode = Objects.requireNonNull(mode);
+        return this;
+    }
+
+    /**
+     * Set how the controller states are received from the native library, must be called before running the engine.
+     * @param delivery Input delivery to use.
+     * @return This object for chaining.
+     */
+    public final SdlControllerEngine setInputDelivery(SdlInputDelivery delivery) {
+        this.inputDelivery = Objects.requireNonNull(delivery);
+        return this;
+    }
+
+    /**
+     * Notify the controller listeners on the given executor instead of the poll thread, so a slow listener does not
+     * delay the sampling. The events are passed through a bounded queue, and the listeners are called by a single
+     * task at a time, in the order of the events. Must be called before running the engine.
+     * If the executor rejects a task, the error is logged once and the next events are discarded.
+     * @param executor Executor running the listeners, for example one feeding the game loop.
+     * @param policy What to do when the queue is full.
+     * @param capacity Minimum number of events the queue can hold.
+     * @return This object for chaining.
+     */
+    public final SdlControllerEngine setListenerExecutor(Executor executor, SdlOverflowPolicy policy, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.listenerExecutor = Objects.requireNonNull(executor);
+        this.overflowPolicy = Objects.requireNonNull(policy);
+        this.eventQueueCapacity = capacity;
+        return this;
+    }
+
+    /**
+     * Keep the input events in a buffer until they are pulled with drainEvents, for game loops reading the input once
+     * per frame instead of implementing a listener. When the buffer is full, the oldest events are discarded.
+     * @param capacity Minimum number of events the buffer can hold.
+     * @return This object for chaining.
+     */
+    public final SdlControllerEngine enableEventDrain(int capacity) {
+        this.drainQueue = new SdlEventQueue(capacity);
+        this.wakeUp();
+        return this;
+    }
+
+    /**
+     * Pass every buffered input event to the consumer, oldest first, without allocation.
+     * Each event is a long to decode with SdlInputEvent. The event drain must have been enabled.
+     * Only one thread at a time should drain the events.
+     * @param consumer Consumer receiving the encoded events.
+     * @return The number of drained events.
+     */
+    public final int drainEvents(LongConsumer consumer) {
+        var queue = this.drainQueue;
+        if (queue == null) {
+            throw new IllegalStateException("Event drain is not enabled.");
+        }
+        this.drainTarget = consumer;
+        try {
+            return queue.drain(this.drainForwarder);
+        } finally {
+            this.drainTarget = null;
+        }
+    }
+
+    /**
+     * Resolve the slot of a drained event. The slot of a disconnected controller keeps resolving to it until another
+     * controller is connected in that slot, so events should be drained at least once per frame.
+     * @param slot Slot from SdlInputEvent.slot.
+     * @return The controller in that slot, null if no controller was ever connected in it.
+     */
+    public final Controller getController(int slot) {
+        var table = this.slotTable;
+        return slot >= 0 && slot < table.length ? table[slot] : null;
+    }
+
+    /**
+     * Sample the controllers as late as possible before each simulation tick provided with setSimulationTickDeadline,
+     * instead of at an arbitrary phase of the poll rate. The engine learns the cost of a sample to start it just in
+     * time. Between two ticks, or when no tick is provided, the controllers are still sampled at the poll rate.
+     * Not used in event driven mode. Must be called before running the engine.
+     * @param enabled True to enable the late latch.
+     * @return This object for chaining.
+     */
+    public final SdlControllerEngine setLateLatch(boolean enabled) {
+        this.lateLatchEnabled = enabled;
+        return this;
+    }
+
+    /**
+     * Provide the time of the next simulation tick, to be called by the simulation once per tick.
+     * @param deadlineNanos System.nanoTime at which the simulation will read the input.
+     */
+    public final void setSimulationTickDeadline(long deadlineNanos) {
+        this.tickDeadline = deadlineNanos;
+        if (this.lateLatchEnabled) {
+            this.wakeUp();
+        }
+    }
+
+    /**
+     * End the current wait of the poll thread, if any, so a configuration change is taken into account immediately.
+     * The thread is unparked, not interrupted: an interrupt stops the engine.
+     */
+    private void wakeUp() {
+        var thread = this.pollThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Host driven late latch: wait until the learned sampling offset before the deadline, then sample the controllers
+     * in the calling thread. The session must have been opened with open() by the same thread.
+     * @param deadlineNanos System.nanoTime at which the simulation will read the input.
+     */
+    public final void pollBefore(long deadlineNanos) {
+        this.tickDeadline = deadlineNanos;
+        this.lateLatch.awaitSampleTime(deadlineNanos);
+        this.pollOnce();
+    }
+
+    /**
+     * @return The age of the input at each simulation tick: time between the end of the last sample before a tick
+     * deadline and that deadline. Only filled when tick deadlines are provided.
+     */
+    public final SdlLatencyHistogram getTickLatencyHistogram() {
+        return this.lateLatch.histogram();
+    }
+
+    /**
+     * @return How long before a tick deadline the late sample is currently started, in nanoseconds.
+     */
+    public final long getLateLatchOffsetNanos() {
+        return this.lateLatch.offset();
+    }
+
+    /**
+     * Set how often the device list is checked when the input are polled, independently of the poll rate.
+     * In event driven mode, the device list is checked on every event instead.
+     * @param interval Time between two checks, 250ms by default.
+     * @return This object for chaining.
+     */
+    public final SdlControllerEngine setHotplugInterval(Duration interval) {
+        this.hotplugDuty.setInterval(interval.toNanos());
+        return this;
+    }
+
+    /**
+     * Back off to a check at the hotplug interval when no controller is connected or nobody listens to the events,
+     * instead of sampling at the poll rate. The full rate is resumed as soon as a controller is connected and a
+     * listener or the event drain is present. While backed off, the controller states are only refreshed at the
+     * hotplug interval. Only used in fixed rate mode without late latch, event driven mode is already idle without
+     * input. Must be called before running the engine.
+     * @param enabled True to enable the power save.
+     * @return This object for chaining.
+     */
+    public final SdlControllerEngine setPowerSave(boolean enabled) {
+        this.powerSave = enabled;
+        return this;
+    }
+
+    /**
+     * Set how often the slow changing metadata, like the battery level, is refreshed. A refresh queries a single
+     * controller per poll cycle, so it never adds more than one native call to a cycle.
+     * @param interval Time between two refreshes of all controllers, 5s by default.
+     * @return This object for chaining.
+     */
+    public final SdlControllerEngine setMetadataInterval(Duration interval) {
+        this.metadataDuty.setInterval(interval.toNanos());
+        return this;
+    }
+
+    /**
+     * Provide the battery level of a controller, refreshed at the metadata interval.
+     * @param controller Controller provided by this engine.
+     * @return The last known power level, UNKNOWN if not supported by the native library or not read yet.
+     */
+    public final SdlPowerLevel getPowerLevel(Controller controller) {
+        return controller instanceof SdlController c ? SdlPowerLevel.fromSdl(c.powerLevel) : SdlPowerLevel.UNKNOWN;
+    }
+
+    /**
+     * Check any SDL button of a controller, including the ones not exposed by ControllerCurrentState.
+     * Buttons 32 to 63 are only reported with the EVENT_RING delivery, or with POLL when the native library exports
+     * getControllerButtons: the getControllerState, getControllerStates and UPCALL states are 32 bits wide.
+     * @param controller Controller provided by this engine.
+     * @param button SDL button index, from 0 to SDL_BUTTON_COUNT - 1.
+     * @return True if the button was pressed at the last sample.
+     */
+    public final boolean isPressed(Controller controller, int button) {
+        return controller instanceof SdlController c && c.currentState.isPressed(button);
+    }
+
+    /**
+     * Link the short native functions called every cycle (update, getControllerState, getControllerStates and
+     * isControllerListChanged) with Linker.Option.critical, removing the thread state transition of each call.
+     * Only use it with a native library where those functions never block nor call back into Java.
+     * Must be called before running the engine.
+     * @param critical True to use the critical linkage.
+     * @return This object for chaining.
+     */
+    public final SdlControllerEngine setCriticalLinkage(boolean critical) {
+        this.criticalLinkage = critical;
+        return this;
+    }
+
+    /**
+     * @return The number of poll cycles that took longer than the period of the poll rate since the engine started.
+     */
+    public final long getOverrunCount() {
+        return this.scheduler.overruns();
+    }
+
+    /**
+     * @return The moving average of the delay between a poll deadline and the actual start of the cycle, in
+     * nanoseconds, for the fixed rate and low latency modes.
+     */
+    public final long getJitterNanos() {
+        return this.scheduler.averageJitter();
+    }
+
+    /**
+     * @return The largest delay between a poll deadline and the actual start of the cycle since the engine started,
+     * in nanoseconds.
+     */
+    public final long getMaxJitterNanos() {
+        return this.scheduler.maxJitter();
     }
 
     @Override
@@ -146,273 +731,628 @@ public class SdlControllerEngine implements ControllerEngine {
         //Does nothing
     }
 
+    /**
+     * Stop the engine. When running in its own thread, the loop ends after the current cycle and the native session is
+     * closed by that thread. When driven by pollOnce(), the native session is closed immediately, so this must then be
+     * called from the thread that opened it.
+     */
     @Override
     public final void close() {
-        running = false;
+        this.running = false;
+        var dispatcher = this.asyncDispatcher;
+        if (dispatcher != null) {
+            dispatcher.close();
+        }
+        if (this.threaded) {
+            this.wakeUp();
+        } else if (this.session != null) {
+            this.shutdown();
+        }
     }
 
+    /**
+     * Run the engine in the calling thread until close() is called or the thread is interrupted. The interrupt status
+     * is left set when the method returns.
+     */
     @Override
     public final void run() {
-        try (var session = Arena.ofConfined()) {
-            SymbolLookup.libraryLookup(this.sdl, session);
-            var library = SymbolLookup.libraryLookup(this.lib, session);
-            var linker = Linker.nativeLinker();
-
-            this.updateControllerStatesFunction = linker.downcallHandle(library.find("update").orElseThrow(), FunctionDescriptor.ofVoid());
-            this.getControllerStateFunction = linker.downcallHandle(library.find("getControllerState").orElseThrow(), FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.JAVA_INT));
-            this.getControllerNameFunction = linker.downcallHandle(library.find("getControllerName").orElseThrow(), FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.JAVA_INT));
-            this.getControllerGuidFunction = linker.downcallHandle(library.find("getControllerGuid").orElseThrow(), FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.JAVA_INT));
-            this.isControllerListChangedFunction = linker.downcallHandle(library.find("isControllerListChanged").orElseThrow(), FunctionDescriptor.of(ValueLayout.JAVA_BOOLEAN));
-            this.getControllerSizeFunction = linker.downcallHandle(library.find("getControllerNumber").orElseThrow(), FunctionDescriptor.of(ValueLayout.JAVA_INT));
-            this.getControllersFunction = linker.downcallHandle(library.find("getControllers").orElseThrow(), FunctionDescriptor.of(ValueLayout.ADDRESS));
-            linker.downcallHandle(library.find("initControls").orElseThrow(), FunctionDescriptor.ofVoid()).invokeExact();
-            this.running = true;
-            this.engineStatusListeners.forEach(ControllerEngineStatusListener::started);
+        // Set before open, so a close() from another thread during the open is left to this thread.
+        this.threaded = true;
+        try {
+            this.open();
+        } catch (RuntimeException e) {
+            this.threaded = false;
+            throw e;
+        }
+        this.pollThread = Thread.currentThread();
+        try {
             this.runLoop();
-            Linker.nativeLinker().downcallHandle(library.find("terminateControls").orElseThrow(), FunctionDescriptor.ofVoid()).invokeExact();
-            this.engineStatusListeners.forEach(ControllerEngineStatusListener::closed);
-        } catch (Throwable e) {
-            throw new IllegalStateException(e);
+        } finally {
+            this.pollThread = null;
+            this.shutdown();
         }
     }
 
-    private void runLoop() {
-        while (this.running) {
-            try {
-                this.updateControllerStatesFunction.invokeExact();
-                var hasChanged = (boolean) this.isControllerListChangedFunction.invokeExact();
-                if (hasChanged) {
-                    var size = (int) this.getControllerSizeFunction.invokeExact();
-                    var arrayPtr = (MemorySegment) this.getControllersFunction.invokeExact();
-                    var ids = Arrays.stream(arrayPtr.reinterpret(ValueLayout.JAVA_INT.byteSize() * size).toArray(ValueLayout.JAVA_INT)).boxed().toList();
-                    for (var id : ids) {
-                        if (!this.controllers.containsKey(id)) {
-                            var guid = getControllerGuid(id);
-                            String name;
-                            if("030044f05e040000e002000000007200".equals(guid)) {
-                                name = "8BitDo Arcade Stick Switch";
-                            } else {
-                                name = getControllerName(id);
-                            }
-                            var controller = new SdlController(name, guid, id);
-                            this.controllers.put(id, controller);
-                            this.controllerListeners.forEach(l -> l.controllerConnected(controller));
-                        }
-                    }
-                    var toRemove = new ArrayList<Integer>();
-                    for(var connectedId : this.controllers.keySet()) {
-                        if(!ids.contains(connectedId)) {
-                            toRemove.add(connectedId);
-                        }
-                    }
-                    List<Controller> removed = new ArrayList<>();
-                    for(var itemToRemove : toRemove) {
-                        removed.add(this.controllers.remove(itemToRemove));
-                    }
-                    for(var controller : removed) {
-                        this.controllerListeners.forEach(l -> l.controllerDisconnected(controller));
-                    }
-                }
-                this.controllers.keySet().forEach(this::handleController);
-                Thread.sleep(20);
-            } catch (Throwable e) {
-                this.logger.log(System.Logger.Level.ERROR, "", e);
+    /**
+     * Open the native session without starting a poll thread, so the host can sample the controllers itself with
+     * pollOnce(), for example from its main loop right before the simulation step.
+     * The session is confined to the calling thread: pollOnce() and close() must be called from that same thread.
+     */
+    public final void open() {
+        if (this.session != null) {
+            throw new IllegalStateException("Native session is already open.");
+        }
+        this.session = Arena.ofConfined();
+        var initialized = false;
+        try {
+            this.nativeLibrary = SdlNativeLibrary.load(this.lib, this.sdl, this.criticalLinkage);
+            if (this.mappings == null) {
+                this.mappings = SdlMappingDatabase.load(List.of());
+            }
+            this.allocateStateBuffer(INITIAL_STATE_BUFFER_CAPACITY);
+            this.eventDriven = false;
+            this.hotplugDuty.reset();
+            this.metadataDuty.reset();
+            this.metadataCursor = -1;
+            this.nativeLibrary.initControlsFunction.invokeExact();
+            initialized = true;
+            this.eventRing = this.openEventRing();
+            this.upcallRegistered = this.registerUpcall(this.session);
+            if (this.listenerExecutor != null) {
+                this.asyncDispatcher = new SdlAsyncDispatcher(this.listenerExecutor, this.overflowPolicy, this.eventQueueCapacity, this.controllerListeners, this.buttonSubscriptions, this.buttonEventListeners, this.controllers);
+            }
+            this.running = true;
+            for (var listener : this.engineStatusListeners.array()) {
+                listener.started();
             }
+        } catch (Throwable e) {
+            this.abortOpen(initialized, e);
+            throw new IllegalStateException(e);
         }
     }
 
-    private void handleController(int controllerId) {
+    /**
+     * Undo a partial open, so the native side does not keep the upcall stub of the closed session.
+     * @param initialized True if initControls was called.
+     * @param cause Error that made the open fail, the errors of the cleanup are added to it.
+     */
+    private void abortOpen(boolean initialized, Throwable cause) {
+        this.running = false;
+        if (this.asyncDispatcher != null) {
+            this.asyncDispatcher.close();
+            this.asyncDispatcher = null;
+        }
         try {
-            var controller = this.controllers.get(controllerId);
-            var newState = (int) this.getControllerStateFunction.invokeExact(controllerId);
-            int previousState = controller.currentState.state;
-            controller.currentState.state = newState;
-            if (newState != previousState) {
-                int xor = newState ^ previousState;
-                int pressed = newState & xor;
-                int released = previousState & xor;
-                for (int i = 0; i < 32; i++) {
-                    if ((pressed & (1L << i)) != 0) {
-                        pressed(i, controller);
-                    }
-                    if ((released & (1L << i)) != 0) {
-                        released(i,controller);
-                    }
-                }
+            if (this.upcallRegistered) {
+                this.upcallRegistered = false;
+                this.nativeLibrary.setControllerCallbackFunction.invokeExact(MemorySegment.NULL);
+            }
+            if (initialized) {
+                this.nativeLibrary.terminateControlsFunction.invokeExact();
             }
         } catch (Throwable e) {
-            this.logger.log(System.Logger.Level.ERROR, "", e);
+            cause.addSuppressed(e);
+        } finally {
+            this.eventRing = null;
+            this.session.close();
+            this.session = null;
         }
     }
 
-    private void pressed(int button, Controller controller) {
-        switch (button) {
-            case SDL_BUTTON_1 -> this.controllerListeners.forEach(l -> l.controllerPress1(controller));
-            case SDL_BUTTON_2 -> this.controllerListeners.forEach(l -> l.controllerPress2(controller));
-            case SDL_BUTTON_3 -> this.controllerListeners.forEach(l -> l.controllerPress3(controller));
-            case SDL_BUTTON_4 -> this.controllerListeners.forEach(l -> l.controllerPress4(controller));
-            case SDL_BUTTON_L1 -> this.controllerListeners.forEach(l -> l.controllerPressL1(controller));
-            case SDL_BUTTON_R1 -> this.controllerListeners.forEach(l -> l.controllerPressR1(controller));
-            case SDL_BUTTON_SELECT -> this.controllerListeners.forEach(l -> l.controllerPressSelect(controller));
-            case SDL_BUTTON_START -> this.controllerListeners.forEach(l -> l.controllerPressStart(controller));
-            case SDL_DPAD_UP -> this.controllerListeners.forEach(l -> l.controllerPressUp(controller));
-            case SDL_DPAD_RIGHT -> this.controllerListeners.forEach(l -> l.controllerPressRight(controller));
-            case SDL_DPAD_DOWN -> this.controllerListeners.forEach(l -> l.controllerPressDown(controller));
-            case SDL_DPAD_LEFT -> this.controllerListeners.forEach(l -> l.controllerPressLeft(controller));
-            case SDL_BUTTON_L2 -> this.controllerListeners.forEach(l -> l.controllerPressL2(controller));
-            case SDL_BUTTON_R2 -> this.controllerListeners.forEach(l -> l.controllerPressR2(controller));
-            default -> this.logger.log(System.Logger.Level.WARNING, "Unknown pressed " + button);
-        }
-    }
-
-    private void released(int button, Controller controller) {
-        switch (button) {
-            case SDL_BUTTON_1 -> this.controllerListeners.forEach(l -> l.controllerRelease1(controller));
-            case SDL_BUTTON_2 -> this.controllerListeners.forEach(l -> l.controllerRelease2(controller));
-            case SDL_BUTTON_3 -> this.controllerListeners.forEach(l -> l.controllerRelease3(controller));
-            case SDL_BUTTON_4 -> this.controllerListeners.forEach(l -> l.controllerRelease4(controller));
-            case SDL_BUTTON_L1 -> this.controllerListeners.forEach(l -> l.controllerReleaseL1(controller));
-            case SDL_BUTTON_R1 -> this.controllerListeners.forEach(l -> l.controllerReleaseR1(controller));
-            case SDL_BUTTON_SELECT -> this.controllerListeners.forEach(l -> l.controllerReleaseSelect(controller));
-            case SDL_BUTTON_START -> this.controllerListeners.forEach(l -> l.controllerReleaseStart(controller));
-            case SDL_DPAD_UP -> this.controllerListeners.forEach(l -> l.controllerReleaseUp(controller));
-            case SDL_DPAD_RIGHT -> this.controllerListeners.forEach(l -> l.controllerReleaseRight(controller));
-            case SDL_DPAD_DOWN -> this.controllerListeners.forEach(l -> l.controllerReleaseDown(controller));
-            case SDL_DPAD_LEFT -> this.controllerListeners.forEach(l -> l.controllerReleaseLeft(controller));
-            case SDL_BUTTON_L2 -> this.controllerListeners.forEach(l -> l.controllerReleaseL2(controller));
-            case SDL_BUTTON_R2 -> this.controllerListeners.forEach(l -> l.controllerReleaseR2(controller));
-            default -> this.logger.log(System.Logger.Level.WARNING, "Unknown released " + button);
+    /**
+     * Sample the controllers once and notify the listeners, in the calling thread.
+     * The session must have been opened with open() by the same thread.
+     */
+    public final void pollOnce() {
+        if (this.session == null) {
+            throw new IllegalStateException("Native session is not open.");
         }
-    }
-
-    private String getControllerName(int playerId) {
         try {
-            return ((MemorySegment) this.getControllerNameFunction.invokeExact(playerId)).reinterpret(128).getString(0);
+            this.cycleNanos = System.nanoTime();
+            this.poll();
+            this.refreshMetadata();
+            this.endCycle();
         } catch (Throwable e) {
-            logger.log(System.Logger.Level.ERROR, "", e);
-            return "Undefined";
+            this.logger.log(System.Logger.Level.ERROR, "", e);
         }
+        this.lateLatch.sampled(this.cycleNanos, System.nanoTime(), this.tickDeadline);
     }
 
-    private String getControllerGuid(int playerId) {
+    private void shutdown() {
         try {
-            return ((MemorySegment) this.getControllerGuidFunction.invokeExact(playerId)).reinterpret(128).getString(0);
+            if (this.asyncDispatcher != null) {
+                this.asyncDispatcher.close();
+                this.asyncDispatcher = null;
+            }
+            if (this.upcallRegistered) {
+                this.nativeLibrary.setControllerCallbackFunction.invokeExact(MemorySegment.NULL);
+                this.upcallRegistered = false;
+            }
+            this.eventRing = null;
+            this.nativeLibrary.terminateControlsFunction.invokeExact();
+            for (var listener : this.engineStatusListeners.array()) {
+                listener.closed();
+            }
         } catch (Throwable e) {
-            logger.log(System.Logger.Level.ERROR, "", e);
-            return "Undefined";
+            throw new IllegalStateException(e);
+        } finally {
+            this.running = false;
+            this.session.close();
+            this.session = null;
+            this.threaded = false;
         }
     }
 
-    private static class SdlController implements Controller {
-
-        private final String model;
+    private SdlNativeEventRing openEventRing() throws Throwable {
+        if (this.inputDelivery != SdlInputDelivery.EVENT_RING) {
+            return null;
+        }
+        if (this.nativeLibrary.getEventRingFunction != null) {
+            var address = (MemorySegment) this.nativeLibrary.getEventRingFunction.invokeExact();
+            if (!MemorySegment.NULL.equals(address)) {
+                return new SdlNativeEventRing(address);
+            }
+        }
+        this.logger.log(System.Logger.Level.WARNING, "Native library does not provide an event ring, falling back to polling.");
+        return null;
+    }
 
-        private final String guid;
+    private boolean registerUpcall(Arena session) throws Throwable {
+        if (this.inputDelivery != SdlInputDelivery.UPCALL) {
+            return false;
+        }
+        if (this.nativeLibrary.setControllerCallbackFunction == null) {
+            this.logger.log(System.Logger.Level.WARNING, "Native library does not provide setControllerCallback, falling back to polling.");
+            return false;
+        }
+        var handler = MethodHandles.lookup()
+                .findVirtual(SdlControllerEngine.class, "onNativeEvent", MethodType.methodType(void.class, int.class, int.class, int.class))
+                .bindTo(this);
+        var stub = Linker.nativeLinker().upcallStub(handler, FunctionDescriptor.ofVoid(ValueLayout.JAVA_INT, ValueLayout.JAVA_INT, ValueLayout.JAVA_INT), session);
+        this.nativeLibrary.setControllerCallbackFunction.invokeExact(stub);
+        return true;
+    }
 
-        private final int id;
+    private void runLoop() {
+        var eventDriven = this.pollMode == SdlPollMode.EVENT_DRIVEN && this.eventRing == null;
+        if (eventDriven && this.nativeLibrary.waitEventFunction == null) {
+            this.logger.log(System.Logger.Level.WARNING, "Native library does not provide waitEvent, falling back to fixed rate polling.");
+            eventDriven = false;
+        }
+        this.eventDriven = eventDriven;
+        this.scheduler = new SdlPollScheduler(this.pollRate, this.pollMode == SdlPollMode.LOW_LATENCY);
+        this.scheduler.start();
+        var lateLatch = this.lateLatchEnabled && !eventDriven;
+        // An interrupt ends the loop, the flag is kept so the owner of the thread still sees it.
+        while (this.running && !Thread.currentThread().isInterrupted()) {
+            if (lateLatch) {
+                this.lateLatchCycle();
+                continue;
+            }
+            if (this.powerSave && !eventDriven && this.isIdle()) {
+                this.idleCycle();
+                continue;
+            }
+            try {
+                if (!eventDriven || (boolean) this.nativeLibrary.waitEventFunction.invokeExact(EVENT_WAIT_TIMEOUT_MS)) {
+                    this.pollOnce();
+                }
+            } catch (Throwable e) {
+                this.logger.log(System.Logger.Level.ERROR, "", e);
+            }
+            if (!eventDriven && !this.scheduler.awaitNextCycle() && this.logger.isLoggable(System.Logger.Level.DEBUG)) {
+                this.logger.log(System.Logger.Level.DEBUG, "Poll cycle exceeded its budget of " + this.scheduler.period() + "ns");
+            }
+        }
+    }
 
-        private final SdlControllerCurrentState currentState = new SdlControllerCurrentState();
+    /**
+     * @return true if no controller is connected or nothing consumes the events.
+     */
+    private boolean isIdle() {
+        return this.controllers.size() == 0 || (this.controllerListeners.isEmpty() && this.buttonSubscriptions.isEmpty() && this.buttonEventListeners.isEmpty() && this.actionListeners.isEmpty() && this.drainQueue == null);
+    }
 
-        private SdlController(String controllerName, String controllerGuid, int controllerId) {
-            super();
-            this.model = controllerName;
-            this.guid = controllerGuid;
-            this.id = controllerId;
+    /**
+     * Wait for the hotplug interval, or a new listener, then check the device list.
+     * When the engine is no longer idle, the poll rate deadlines are restarted from now.
+     */
+    private void idleCycle() {
+        LockSupport.parkNanos(this.hotplugDuty.interval());
+        this.hotplugDuty.reset();
+        this.pollOnce();
+        if (!this.isIdle()) {
+            this.scheduler.start();
         }
+    }
 
-        @Override
-        public String model() {
-            return this.model;
+    /**
+     * Sample at the poll rate, and right before the next tick deadline if a new one was provided.
+     * The wait stops at the next period, at the sample time of the pending deadline or when a new deadline is
+     * provided, so the deadline is read again on every wake up and sampling never pauses until a tick.
+     */
+    private void lateLatchCycle() {
+        var deadline = this.tickDeadline;
+        if (deadline == this.latchedDeadline || deadline - System.nanoTime() <= 0) {
+            if (this.scheduler.awaitNextCycleOrWakeUp()) {
+                this.pollOnce();
+            }
+            return;
         }
+        var sampleTime = this.lateLatch.sampleTime(deadline);
+        if (sampleTime - System.nanoTime() <= 0) {
+            this.latchedDeadline = deadline;
+            this.pollOnce();
+        } else if (this.scheduler.awaitNextCycleOrWakeUp(sampleTime)) {
+            this.pollOnce();
+        }
+    }
 
-        @Override
-        public String guid() {
-            return this.guid;
+    private void poll() throws Throwable {
+        if (this.eventRing != null) {
+            this.eventRing.drain(this.transitionHandler);
+            return;
+        }
+        if (this.upcallRegistered) {
+            this.nativeLibrary.updateWithCallbackFunction.invokeExact();
+            if (this.controllerListChanged) {
+                this.controllerListChanged = false;
+                this.handleControllerListChanged();
+                // Changes of new controllers may have been pushed before they were registered.
+                this.handleEachController();
+            }
+            return;
+        }
+        this.nativeLibrary.updateControllerStatesFunction.invokeExact();
+        if (this.eventDriven || this.hotplugDuty.isDue(this.cycleNanos)) {
+            var hasChanged = (boolean) this.nativeLibrary.isControllerListChangedFunction.invokeExact();
+            if (hasChanged) {
+                this.handleControllerListChanged();
+            }
+        }
+        // The bulk entries only carry 32 bits states, the 64 bits function is preferred when it exists.
+        if (this.nativeLibrary.getControllerStatesFunction == null || this.nativeLibrary.getControllerButtonsFunction != null) {
+            this.handleEachController();
+        } else {
+            this.handleControllers();
         }
+    }
 
-        @Override
-        public int id() {
-            return this.id;
+    /**
+     * Publish the changes of the cycle: snapshot, events queued for the listener executor and actions.
+     */
+    private void endCycle() {
+        var stateChanged = this.snapshotOutdated;
+        this.publishSnapshot();
+        if (this.asyncDispatcher != null) {
+            this.asyncDispatcher.endCycle(this.cycleNanos);
         }
+        this.actionTracker.update(this.actionSet, this.controllers, stateChanged, this.actionListeners.array());
+    }
 
-        @Override
-        public ControllerCurrentState currentState() {
-            return this.currentState;
+    /**
+     * Publish a new snapshot if anything changed during the cycle, with a single volatile write.
+     */
+    private void publishSnapshot() {
+        if (!this.snapshotOutdated) {
+            return;
+        }
+        this.snapshotOutdated = false;
+        var size = this.controllers.size();
+        var list = new Controller[size];
+        var states = new SdlControllerCurrentState[size];
+        var index = 0;
+        for (int slot = 0; slot < this.controllers.limit(); slot++) {
+            var controller = this.controllers.controller(slot);
+            if (controller != null) {
+                list[index] = controller;
+                states[index] = new SdlControllerCurrentState(this.controllers.state(slot));
+                index++;
+            }
         }
+        this.snapshot = new SdlControllerSnapshot(this.snapshot.sequence() + 1, System.nanoTime(), list, states);
     }
 
-    private static class SdlControllerCurrentState implements ControllerCurrentState {
+    /**
+     * Diff the ids reported by the native library against the registered controllers.
+     * Both id lists are kept sorted in reused arrays, so the diff is a single merge pass without allocation.
+     */
+    private void handleControllerListChanged() throws Throwable {
+        var size = (int) this.nativeLibrary.getControllerSizeFunction.invokeExact();
+        var arrayPtr = (MemorySegment) this.nativeLibrary.getControllersFunction.invokeExact();
+        if (this.connectedIds.length < size) {
+            this.connectedIds = new int[size * 2];
+        }
+        MemorySegment.copy(arrayPtr.reinterpret(ValueLayout.JAVA_INT.byteSize() * size), ValueLayout.JAVA_INT, 0, this.connectedIds, 0, size);
+        Arrays.sort(this.connectedIds, 0, size);
+        int current = 0;
+        int known = 0;
+        while (current < size || known < this.knownIdsSize) {
+            if (known == this.knownIdsSize || (current < size && this.connectedIds[current] < this.knownIds[known])) {
+                this.connectController(this.connectedIds[current]);
+                current++;
+            } else if (current == size || this.connectedIds[current] > this.knownIds[known]) {
+                this.disconnectController(this.knownIds[known]);
+                known++;
+            } else {
+                current++;
+                known++;
+            }
+        }
+        var previous = this.knownIds;
+        this.knownIds = this.connectedIds;
+        this.knownIdsSize = size;
+        this.connectedIds = previous;
+    }
 
-        private int state = 0;
+    private void connectController(int id) {
+        if (id < 0) {
+            this.logger.log(System.Logger.Level.WARNING, "Invalid SDL instance id " + id + " in the device list, ignored.");
+            return;
+        }
+        var guid = getControllerGuid(id);
+        var name = this.mappings.name(guid);
+        if (name == null) {
+            name = getControllerName(id);
+        }
+        var controller = new SdlController(name, guid, id);
+        this.controllers.add(controller);
+        this.snapshotOutdated = true;
+        var table = this.slotTable;
+        if (controller.slot >= table.length) {
+            table = Arrays.copyOf(table, this.controllers.limit());
+        } else {
+            table = table.clone();
+        }
+        table[controller.slot] = controller;
+        this.slotTable = table;
+        this.buttonSubscriptions.invalidate();
+        this.actionTracker.reset(controller.slot);
+        // Published before the notification, so a listener calling getControllers() sees the new controller.
+        this.publishSnapshot();
+        this.offerToDrain(SdlInputEvent.encode(SdlInputEvent.TYPE_CONNECTED, controller.slot, 0, false, this.cycleNanos), SdlButtonEvent.NO_TIMESTAMP, controller);
+        if (this.asyncDispatcher != null) {
+            this.asyncDispatcher.connected(controller, this.cycleNanos);
+            return;
+        }
+        for (var listener : this.controllerListeners.array()) {
+            listener.controllerConnected(controller);
+        }
+        for (var subscription : this.buttonSubscriptions.all()) {
+            if (subscription.source() != null && subscription.accepts(controller)) {
+                subscription.source().controllerConnected(controller);
+            }
+        }
+    }
 
-        @Override
-        public boolean isButton1Pressed() {
-            return (state & (1L << SDL_BUTTON_1)) > 0;
+    private void disconnectController(int id) {
+        var slot = this.controllers.slotOf(id);
+        var controller = this.controllers.remove(id);
+        if (controller != null) {
+            this.snapshotOutdated = true;
+            this.buttonSubscriptions.invalidate();
+            this.actionTracker.disconnected(slot, controller, this.actionListeners.array());
+            this.publishSnapshot();
+            this.offerToDrain(SdlInputEvent.encode(SdlInputEvent.TYPE_DISCONNECTED, slot, 0, false, this.cycleNanos), SdlButtonEvent.NO_TIMESTAMP, controller);
+            if (this.asyncDispatcher != null) {
+                this.asyncDispatcher.disconnected(controller, slot, this.cycleNanos);
+                return;
+            }
+            for (var listener : this.controllerListeners.array()) {
+                listener.controllerDisconnected(controller);
+            }
+            for (var subscription : this.buttonSubscriptions.all()) {
+                if (subscription.source() != null && subscription.accepts(controller)) {
+                    subscription.source().controllerDisconnected(controller);
+                }
+            }
         }
+    }
 
-        @Override
-        public boolean isButton2Pressed() {
-            return (state & (1L << SDL_BUTTON_2)) > 0;
+    /**
+     * Called by the native library during update, an exception must never escape from here.
+     * @param type 0 for a state change, 1 for a device list change.
+     * @param controllerId SDL instance id of the controller whose state changed.
+     * @param state New state of the controller.
+     */
+    private void onNativeEvent(int type, int controllerId, int state) {
+        try {
+            if (type == 1) {
+                this.controllerListChanged = true;
+                return;
+            }
+            var controller = this.controllers.get(controllerId);
+            if (controller != null) {
+                this.handleControllerState(controller, Integer.toUnsignedLong(state));
+            }
+        } catch (Throwable e) {
+            this.logger.log(System.Logger.Level.ERROR, "", e);
         }
+    }
 
-        @Override
-        public boolean isButton3Pressed() {
-            return (state & (1L << SDL_BUTTON_3)) > 0;
+    /**
+     * Apply a single transition read from the native event ring.
+     */
+    private void handleTransition(int controllerId, int button, boolean pressed, long timestamp) {
+        try {
+            if (button == SdlNativeEventRing.DEVICE_LIST_CHANGED) {
+                this.handleControllerListChanged();
+                return;
+            }
+            var controller = this.controllers.get(controllerId);
+            if (controller == null || button < 0 || button >= SDL_BUTTON_COUNT) {
+                return;
+            }
+            var bit = 1L << button;
+            var state = this.controllers.state(controller.slot);
+            state = pressed ? state | bit : state & ~bit;
+            this.controllers.state(controller.slot, state);
+            controller.currentState.state = state;
+            this.snapshotOutdated = true;
+            this.buttonChanged(controller, button, pressed, timestamp);
+        } catch (Throwable e) {
+            this.logger.log(System.Logger.Level.ERROR, "", e);
         }
+    }
 
-        @Override
-        public boolean isButton4Pressed() {
-            return (state & (1L << SDL_BUTTON_4)) > 0;
+    /**
+     * Refresh the metadata of at most one controller, a full refresh being spread over several cycles.
+     */
+    private void refreshMetadata() throws Throwable {
+        if (this.nativeLibrary.getControllerPowerLevelFunction == null) {
+            return;
+        }
+        if (this.metadataCursor < 0) {
+            if (!this.metadataDuty.isDue(this.cycleNanos)) {
+                return;
+            }
+            this.metadataCursor = 0;
         }
+        while (this.metadataCursor < this.controllers.limit() && this.controllers.controller(this.metadataCursor) == null) {
+            this.metadataCursor++;
+        }
+        if (this.metadataCursor >= this.controllers.limit()) {
+            this.metadataCursor = -1;
+            return;
+        }
+        var controller = this.controllers.controller(this.metadataCursor++);
+        controller.powerLevel = (int) this.nativeLibrary.getControllerPowerLevelFunction.invokeExact(controller.id());
+    }
 
-        @Override
-        public boolean isButtonL1Pressed() {
-            return (state & (1L << SDL_BUTTON_L1)) > 0;
+    private void allocateStateBuffer(int capacity) {
+        this.stateBuffer = this.session.allocate(ValueLayout.JAVA_INT, 2L * capacity);
+        this.stateBufferCapacity = capacity;
+    }
+
+    /**
+     * Retrieve the state of all connected controllers with a single native call.
+     * The native function writes (id, state) pairs in the buffer and returns the number of connected controllers,
+     * when that number exceeds the buffer capacity, the buffer is grown and the call is made again.
+     */
+    private void handleControllers() throws Throwable {
+        var count = (int) this.nativeLibrary.getControllerStatesFunction.invokeExact(this.stateBuffer, this.stateBufferCapacity);
+        if (count > this.stateBufferCapacity) {
+            this.allocateStateBuffer(count * 2);
+            count = (int) this.nativeLibrary.getControllerStatesFunction.invokeExact(this.stateBuffer, this.stateBufferCapacity);
         }
+        count = Math.min(count, this.stateBufferCapacity);
+        for (int i = 0; i < count; i++) {
+            var controller = this.controllers.get(this.stateBuffer.getAtIndex(ValueLayout.JAVA_INT, 2L * i));
+            if (controller != null) {
+                this.handleControllerState(controller, Integer.toUnsignedLong(this.stateBuffer.getAtIndex(ValueLayout.JAVA_INT, 2L * i + 1)));
+            }
+        }
+    }
 
-        @Override
-        public boolean isButtonL2Pressed() {
-            return (state & (1L << SDL_BUTTON_L2)) > 0;
+    private void handleEachController() {
+        for (int slot = 0; slot < this.controllers.limit(); slot++) {
+            var controller = this.controllers.controller(slot);
+            if (controller != null) {
+                this.handleController(controller);
+            }
         }
+    }
 
-        @Override
-        public boolean isButtonR1Pressed() {
-            return (state & (1L << SDL_BUTTON_R1)) > 0;
+    private void handleController(SdlController controller) {
+        try {
+            if (this.nativeLibrary.getControllerButtonsFunction != null) {
+                this.handleControllerState(controller, (long) this.nativeLibrary.getControllerButtonsFunction.invokeExact(controller.id()));
+                return;
+            }
+            this.handleControllerState(controller, Integer.toUnsignedLong((int) this.nativeLibrary.getControllerStateFunction.invokeExact(controller.id())));
+        } catch (Throwable e) {
+            this.logger.log(System.Logger.Level.ERROR, "", e);
         }
+    }
 
-        @Override
-        public boolean isButtonR2Pressed() {
-            return (state & (1L << SDL_BUTTON_R2)) > 0;
+    private void handleControllerState(SdlController controller, long newState) {
+        long previousState = this.controllers.state(controller.slot);
+        if (newState != previousState) {
+            this.controllers.state(controller.slot, newState);
+            controller.currentState.state = newState;
+            this.snapshotOutdated = true;
+            long xor = newState ^ previousState;
+            this.dispatchChanges(true, newState & xor, controller);
+            this.dispatchChanges(false, previousState & xor, controller);
         }
+    }
 
-        @Override
-        public boolean isButtonStartPressed() {
-            return (state & (1L << SDL_BUTTON_START)) > 0;
+    /**
+     * Notify the listeners for every set bit of the changes, visiting only those bits.
+     * @param pressed True if the buttons were pressed, false if released.
+     * @param changes Bit mask of the buttons that changed.
+     * @param controller Controller whose buttons changed.
+     */
+    private void dispatchChanges(boolean pressed, long changes, SdlController controller) {
+        while (changes != 0) {
+            var button = Long.numberOfTrailingZeros(changes);
+            changes &= changes - 1;
+            this.buttonChanged(controller, button, pressed, SdlButtonEvent.NO_TIMESTAMP);
         }
+    }
 
-        @Override
-        public boolean isButtonSelectPressed() {
-            return (state & (1L << SDL_BUTTON_SELECT)) > 0;
+    /**
+     * @param sdlTimestamp SDL event timestamp, or SdlButtonEvent.NO_TIMESTAMP when the change was found by polling.
+     */
+    private void buttonChanged(SdlController controller, int button, boolean pressed, long sdlTimestamp) {
+        this.offerToDrain(SdlInputEvent.encode(SdlInputEvent.TYPE_BUTTON, controller.slot, button, pressed, this.cycleNanos), sdlTimestamp, controller);
+        if (this.asyncDispatcher != null) {
+            this.asyncDispatcher.button(controller, button, pressed, this.cycleNanos, sdlTimestamp);
+            return;
         }
+        var eventListeners = this.buttonEventListeners.array();
+        if (eventListeners.length > 0) {
+            this.buttonEvent.set(controller, button, pressed, sdlTimestamp, this.cycleNanos);
+            for (var listener : eventListeners) {
+                listener.buttonChanged(this.buttonEvent);
+                if (this.buttonEvent.isConsumed()) {
+                    return;
+                }
+            }
+        }
+        this.dispatchButton(pressed ? SdlButtonHandlers.PRESSED : SdlButtonHandlers.RELEASED, button, controller);
+        this.buttonSubscriptions.dispatch(this.controllers, controller, button, pressed, this.cycleNanos);
+    }
 
-        @Override
-        public boolean isPadUpPressed() {
-            return (state & (1L << SDL_DPAD_UP)) > 0;
+    private void offerToDrain(long event, long sdlTimestamp, SdlController controller) {
+        var queue = this.drainQueue;
+        if (queue != null) {
+            while (!queue.offer(event, this.cycleNanos, sdlTimestamp, controller)) {
+                queue.dropOldest();
+            }
         }
+    }
 
-        @Override
-        public boolean isPadDownPressed() {
-            return (state & (1L << SDL_DPAD_RIGHT)) > 0;
+    private void dispatchButton(SdlButtonHandlers.ButtonHandler[] table, int button, Controller controller) {
+        var handler = SdlButtonHandlers.get(table, button);
+        if (handler == null) {
+            var bit = 1L << button;
+            if ((this.unmappedButtons & bit) == 0) {
+                this.unmappedButtons |= bit;
+                this.logger.log(System.Logger.Level.INFO, "No ControllerListener method for SDL button " + button + ", use isPressed or an SdlButtonEventListener.");
+            }
+            return;
         }
+        for (var listener : this.controllerListeners.array()) {
+            handler.handle(listener, controller);
+        }
+    }
 
-        @Override
-        public boolean isPadLeftPressed() {
-            return (state & (1L << SDL_DPAD_DOWN)) > 0;
+    private String getControllerName(int playerId) {
+        try {
+            return ((MemorySegment) this.nativeLibrary.getControllerNameFunction.invokeExact(playerId)).reinterpret(128).getString(0);
+        } catch (Throwable e) {
+            logger.log(System.Logger.Level.ERROR, "", e);
+            return "Undefined";
         }
+    }
 
-        @Override
-        public boolean isPadRightPressed() {
-            return (state & (1L << SDL_DPAD_RIGHT)) > 0;
+    private String getControllerGuid(int playerId) {
+        try {
+            return ((MemorySegment) this.nativeLibrary.getControllerGuidFunction.invokeExact(playerId)).reinterpret(128).getString(0);
+        } catch (Throwable e) {
+            logger.log(System.Logger.Level.ERROR, "", e);
+            return "Undefined";
         }
     }
 }
@@ -0,0 +1,242 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package be.yildizgames.module.controller.sdl;
+
+import java.util.Arrays;
+
+/**
+ * Registry of the connected controllers, mapping the SDL instance ids to dense slots.
+ * Controllers and their last sampled state are stored in parallel arrays indexed by slot, so the poll loop is a plain
+ * indexed loop up to {@link #limit()}. Slots are stable while a controller is connected and reused once it is removed.
+ * SDL instance ids keep growing with each connection, they are mapped to slots with an open addressing hash table
+ * sized after the number of connected controllers, not after the id values. Valid SDL instance ids are never
+ * negative, -1 being the SDL invalid id, so negative ids are rejected and used as the empty key of the table.
+ * Not thread safe, only used by the poll thread.
+ *
+ * @author Grégory Van den Borre
+ */
+final class SdlControllerRegistry {
+
+    private static final int EMPTY = -1;
+
+    private SdlController[] controllers = new SdlController[8];
+
+    private long[] states = new long[8];
+
+    /**
+     * Free slots below limit, used as a stack.
+     */
+    private int[] freeSlots = new int[8];
+
+    private int freeSlotsSize;
+
+    private int limit;
+
+    private int size;
+
+    /**
+     * Hash table keys, SDL instance ids, EMPTY for an unused entry.
+     */
+    private int[] keys = newKeys(16);
+
+    /**
+     * Hash table values, slot of the controller with the id at the same position in keys.
+     */
+    private int[] values = new int[16];
+
+    SdlControllerRegistry() {
+        super();
+    }
+
+    /**
+     * Register a controller in a free slot.
+     * @param controller Controller to register, its slot field is updated.
+     * @return The slot of the controller.
+     * @throws IllegalArgumentException If the controller id is negative.
+     */
+    final int add(SdlController controller) {
+        if (controller.id() < 0) {
+            throw new IllegalArgumentException("Invalid SDL instance id: " + controller.id());
+        }
+        int slot;
+        if (this.freeSlotsSize > 0) {
+            slot = this.freeSlots[--this.freeSlotsSize];
+        } else {
+            if (this.limit == this.controllers.length) {
+                this.controllers = Arrays.copyOf(this.controllers, this.limit * 2);
+                this.states = Arrays.copyOf(this.states, this.limit * 2);
+            }
+            slot = this.limit++;
+        }
+        this.controllers[slot] = controller;
+        this.states[slot] = 0;
+        controller.slot = slot;
+        this.size++;
+        if (this.size * 2 > this.keys.length) {
+            this.rehash(this.keys.length * 2);
+        }
+        this.put(controller.id(), slot);
+        return slot;
+    }
+
+    /**
+     * Remove the controller with the given SDL instance id.
+     * @param id SDL instance id.
+     * @return The removed controller, or null if none was registered with that id.
+     */
+    final SdlController remove(int id) {
+        var slot = this.slotOf(id);
+        if (slot == EMPTY) {
+            return null;
+        }
+        this.delete(id);
+        var controller = this.controllers[slot];
+        this.controllers[slot] = null;
+        controller.slot = EMPTY;
+        if (this.freeSlotsSize == this.freeSlots.length) {
+            this.freeSlots = Arrays.copyOf(this.freeSlots, this.freeSlotsSize * 2);
+        }
+        this.freeSlots[this.freeSlotsSize++] = slot;
+        this.size--;
+        return controller;
+    }
+
+    /**
+     * @param id SDL instance id.
+     * @return The slot of the controller with that id, -1 if none is registered or the id is negative.
+     */
+    final int slotOf(int id) {
+        if (id < 0) {
+            return EMPTY;
+        }
+        var mask = this.keys.length - 1;
+        var index = mix(id) & mask;
+        while (true) {
+            var key = this.keys[index];
+            if (key == id) {
+                return this.values[index];
+            }
+            if (key == EMPTY) {
+                return EMPTY;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * @param id SDL instance id.
+     * @return The controller with that id, null if none is registered.
+     */
+    final SdlController get(int id) {
+        var slot = this.slotOf(id);
+        return slot == EMPTY ? null : this.controllers[slot];
+    }
+
+    /**
+     * @param slot Slot index, lower than limit.
+     * @return The controller in that slot, null if the slot is free.
+     */
+    final SdlController controller(int slot) {
+        return this.controllers[slot];
+    }
+
+    /**
+     * @param slot Slot index of a registered controller.
+     * @return The state last sampled for the controller in that slot.
+     */
+    final long state(int slot) {
+        return this.states[slot];
+    }
+
+    final void state(int slot, long state) {
+        this.states[slot] = state;
+    }
+
+    /**
+     * @return The upper bound, exclusive, of the slots in use.
+     */
+    final int limit() {
+        return this.limit;
+    }
+
+    /**
+     * @return The number of registered controllers.
+     */
+    final int size() {
+        return this.size;
+    }
+
+    private void put(int id, int slot) {
+        var mask = this.keys.length - 1;
+        var index = mix(id) & mask;
+        while (this.keys[index] != EMPTY && this.keys[index] != id) {
+            index = (index + 1) & mask;
+        }
+        this.keys[index] = id;
+        this.values[index] = slot;
+    }
+
+    /**
+     * Remove an id from the table, shifting back the following entries of its probe sequence to keep it tombstone free.
+     */
+    private void delete(int id) {
+        var mask = this.keys.length - 1;
+        var index = mix(id) & mask;
+        while (this.keys[index] != id) {
+            index = (index + 1) & mask;
+        }
+        var next = (index + 1) & mask;
+        while (this.keys[next] != EMPTY) {
+            var home = mix(this.keys[next]) & mask;
+            // Move the entry back if its home position is not between the hole and its current position.
+            if (((next - home) & mask) >= ((next - index) & mask)) {
+                this.keys[index] = this.keys[next];
+                this.values[index] = this.values[next];
+                index = next;
+            }
+            next = (next + 1) & mask;
+        }
+        this.keys[index] = EMPTY;
+    }
+
+    private void rehash(int capacity) {
+        var oldKeys = this.keys;
+        var oldValues = this.values;
+        this.keys = newKeys(capacity);
+        this.values = new int[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                this.put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private static int[] newKeys(int capacity) {
+        var result = new int[capacity];
+        Arrays.fill(result, EMPTY);
+        return result;
+    }
+
+    /**
+     * @return The hash of an id, its position in the table being the lower bits.
+     */
+    static int mix(int id) {
+        var h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
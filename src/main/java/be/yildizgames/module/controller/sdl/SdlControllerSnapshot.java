@@ -0,0 +1,118 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package be.yildizgames.module.controller.sdl;
+
+import be.yildizgames.module.controller.Controller;
+import be.yildizgames.module.controller.ControllerCurrentState;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable view of all connected controllers and their states, as sampled in a single poll cycle.
+ * The engine publishes a new snapshot at the end of each cycle where something changed, so it can be read from any
+ * thread without locking, and without ever blocking the poll thread.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class SdlControllerSnapshot {
+
+    static final SdlControllerSnapshot EMPTY = new SdlControllerSnapshot(0, 0, new Controller[0], new SdlControllerCurrentState[0]);
+
+    private final long sequence;
+
+    private final long timestamp;
+
+    private final List<Controller> controllers;
+
+    private final SdlControllerCurrentState[] states;
+
+    SdlControllerSnapshot(long sequence, long timestamp, Controller[] controllers, SdlControllerCurrentState[] states) {
+        super();
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.controllers = List.of(controllers);
+        this.states = states;
+    }
+
+    /**
+     * @return The number of the publication, increasing with every new snapshot.
+     */
+    public long sequence() {
+        return this.sequence;
+    }
+
+    /**
+     * @return The System.nanoTime of the poll cycle that produced this snapshot.
+     */
+    public long timestamp() {
+        return this.timestamp;
+    }
+
+    /**
+     * @return The number of controllers in this snapshot.
+     */
+    public int size() {
+        return this.states.length;
+    }
+
+    /**
+     * @return The connected controllers, in the same order as the states.
+     */
+    public List<Controller> controllers() {
+        return this.controllers;
+    }
+
+    /**
+     * @param index Index of the controller, between 0 and size() - 1.
+     * @return The controller at that index.
+     */
+    public Controller controller(int index) {
+        return this.controllers.get(index);
+    }
+
+    /**
+     * @param index Index of the controller, between 0 and size() - 1.
+     * @return The state of the controller at that index when the snapshot was taken, never updated afterward.
+     */
+    public ControllerCurrentState state(int index) {
+        return this.states[index];
+    }
+
+    /**
+     * @param index Index of the controller, from 0 to size() - 1.
+     * @param button SDL button index.
+     * @return True if the button was pressed when the snapshot was taken.
+     */
+    public boolean isPressed(int index, int button) {
+        return this.states[index].isPressed(button);
+    }
+
+    /**
+     * @param index Index of the controller, from 0 to size() - 1.
+     * @return The state of every button when the snapshot was taken, one bit per SDL button index.
+     */
+    public long buttons(int index) {
+        return this.states[index].state;
+    }
+
+    @Override
+    public String toString() {
+        return "SdlControllerSnapshot{sequence=" + this.sequence + ", controllers=" + this.controllers + ", states=" + Arrays.toString(this.states) + "}";
+    }
+}
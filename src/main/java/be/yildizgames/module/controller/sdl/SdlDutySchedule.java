@@ -0,0 +1,73 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package be.yildizgames.module.controller.sdl;
+
+/**
+ * Tell when a duty running at a lower rate than the input sampling is due, for example the hotplug check.
+ *
+ * @author Grégory Van den Borre
+ */
+final class SdlDutySchedule {
+
+    private long interval;
+
+    private long next;
+
+    private boolean started;
+
+    SdlDutySchedule(long intervalNanos) {
+        super();
+        this.interval = intervalNanos;
+    }
+
+    /**
+     * @param intervalNanos Minimum time between two runs of the duty, in nanoseconds.
+     */
+    final void setInterval(long intervalNanos) {
+        this.interval = intervalNanos;
+    }
+
+    /**
+     * @return Minimum time between two runs of the duty, in nanoseconds.
+     */
+    final long interval() {
+        return this.interval;
+    }
+
+    /**
+     * Check if the duty must run, and if so plan the next run.
+     * The first call is always due.
+     * @param now Current System.nanoTime.
+     * @return true if the duty must run now.
+     */
+    final boolean isDue(long now) {
+        if (this.started && now - this.next < 0) {
+            return false;
+        }
+        this.started = true;
+        this.next = now + this.interval;
+        return true;
+    }
+
+    /**
+     * Make the duty due on the next check.
+     */
+    final void reset() {
+        this.started = false;
+    }
+}
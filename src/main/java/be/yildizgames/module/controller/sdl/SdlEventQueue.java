@@ -0,0 +1,159 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package be.yildizgames.module.controller.sdl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded lock free queue of encoded input events, with a single producer.
+ * Every entry is a long from SdlInputEvent, the full sample time, the SDL timestamp and the controller it refers to,
+ * stored in parallel arrays so queuing an event does not allocate. The head is only moved with a compare and set, which lets the producer discard the oldest
+ * entry while a consumer is reading it: a consumer only accepts an entry after successfully moving the head past it.
+ *
+ * @author Grégory Van den Borre
+ */
+final class SdlEventQueue {
+
+    private final long[] events;
+
+    private final long[] sampleNanos;
+
+    private final long[] sdlTimestamps;
+
+    private final SdlController[] controllers;
+
+    private final int mask;
+
+    /**
+     * Index of the next entry to read.
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * Index of the next entry to write, only moved by the producer.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * @param capacity Minimum number of entries, rounded up to a power of two.
+     */
+    SdlEventQueue(int capacity) {
+        super();
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        var size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.events = new long[size];
+        this.sampleNanos = new long[size];
+        this.sdlTimestamps = new long[size];
+        this.controllers = new SdlController[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Queue an event, producer only.
+     * @param event Encoded event.
+     * @param sampleNanos System.nanoTime of the sample.
+     * @param sdlTimestamp SDL event timestamp, or SdlButtonEvent.NO_TIMESTAMP.
+     * @param controller Controller the event refers to.
+     * @return false if the queue is full.
+     */
+    final boolean offer(long event, long sampleNanos, long sdlTimestamp, SdlController controller) {
+        var t = this.tail.get();
+        if (t - this.head.get() > this.mask) {
+            return false;
+        }
+        var index = (int) (t & this.mask);
+        this.events[index] = event;
+        this.sampleNanos[index] = sampleNanos;
+        this.sdlTimestamps[index] = sdlTimestamp;
+        this.controllers[index] = controller;
+        this.tail.set(t + 1);
+        return true;
+    }
+
+    /**
+     * Discard the oldest entry, producer only.
+     */
+    final void dropOldest() {
+        var h = this.head.get();
+        if (this.tail.get() != h) {
+            this.head.compareAndSet(h, h + 1);
+        }
+    }
+
+    /**
+     * Discard the oldest entry if it is a button event, producer only.
+     * @return false if the oldest entry is a connection or disconnection event, which is kept.
+     */
+    final boolean dropOldestButton() {
+        var h = this.head.get();
+        if (this.tail.get() == h) {
+            return true;
+        }
+        if (SdlInputEvent.type(this.events[(int) (h & this.mask)]) != SdlInputEvent.TYPE_BUTTON) {
+            return false;
+        }
+        this.head.compareAndSet(h, h + 1);
+        return true;
+    }
+
+    /**
+     * @return The number of entries that can be queued before the queue is full.
+     */
+    final int remaining() {
+        return (int) (this.events.length - (this.tail.get() - this.head.get()));
+    }
+
+    final boolean isEmpty() {
+        return this.tail.get() == this.head.get();
+    }
+
+    /**
+     * Consume all queued entries.
+     * @param consumer Receive the entries in order.
+     * @return The number of consumed entries.
+     */
+    final int drain(EventConsumer consumer) {
+        var count = 0;
+        while (true) {
+            var h = this.head.get();
+            if (h == this.tail.get()) {
+                return count;
+            }
+            var index = (int) (h & this.mask);
+            var event = this.events[index];
+            var nanos = this.sampleNanos[index];
+            var sdlTimestamp = this.sdlTimestamps[index];
+            var controller = this.controllers[index];
+            if (this.head.compareAndSet(h, h + 1)) {
+                consumer.accept(event, nanos, sdlTimestamp, controller);
+                count++;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface EventConsumer {
+
+        void accept(long event, long sampleNanos, long sdlTimestamp, SdlController controller);
+    }
+}
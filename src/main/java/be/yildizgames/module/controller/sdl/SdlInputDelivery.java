@@ -0,0 +1,49 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package be.yildizgames.module.controller.sdl;
+
+/**
+ * Ways the engine receives the controller states from the native library.
+ *
+ * @author Grégory Van den Borre
+ */
+public enum SdlInputDelivery {
+
+    /**
+     * Query the native library for the controller states every cycle.
+     * The 64 bits getControllerButtons is used when exported, otherwise the states are read with the bulk
+     * getControllerStates or the per controller getControllerState, both limited to the buttons 0 to 31.
+     */
+    POLL,
+
+    /**
+     * Read the transitions written by the native library in a shared ring buffer, without any downcall per cycle.
+     * Requires the native library to export void* getEventRing(), returning the ring and starting its own event pump,
+     * otherwise the engine falls back to POLL. The poll mode is always FIXED_RATE in this case.
+     */
+    EVENT_RING,
+
+    /**
+     * Let the native library push the changes by calling back into the engine while it updates the controllers.
+     * Requires the native library to export void setControllerCallback(void (*)(int type, int id, int state)), the
+     * callback being invoked from update with type 0 when the state of a controller changed and type 1 when the
+     * device list changed, otherwise the engine falls back to POLL.
+     * The state passed to the callback is 32 bits wide, so the buttons 32 to 63 are not reported.
+     */
+    UPCALL
+}
@@ -0,0 +1,115 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package be.yildizgames.module.controller.sdl;
+
+/**
+ * Encoding of an input event in a single long, so events can be queued and consumed without allocation.
+ * Use the static methods of this class to read the fields of an event drained from the engine.
+ * <pre>
+ * bits 0-5    button index.
+ * bit  6      1 for a press, 0 for a release.
+ * bits 7-8    event type: button, controller connected or controller disconnected.
+ * bits 9-20   slot of the controller in the engine.
+ * bits 21-63  System.nanoTime of the sample, in microseconds, truncated to 43 bits.
+ * </pre>
+ *
+ * @author Grégory Van den Borre
+ */
+public final class SdlInputEvent {
+
+    /**
+     * A button of the controller was pressed or released.
+     */
+    public static final int TYPE_BUTTON = 0;
+
+    /**
+     * The controller was connected.
+     */
+    public static final int TYPE_CONNECTED = 1;
+
+    /**
+     * The controller was disconnected.
+     */
+    public static final int TYPE_DISCONNECTED = 2;
+
+    private static final int PRESSED_SHIFT = 6;
+
+    private static final int TYPE_SHIFT = 7;
+
+    private static final int SLOT_SHIFT = 9;
+
+    private static final int TIMESTAMP_SHIFT = 21;
+
+    private static final long BUTTON_MASK = 0x3F;
+
+    private static final long TYPE_MASK = 0x3;
+
+    private static final long SLOT_MASK = 0xFFF;
+
+    private SdlInputEvent() {
+        super();
+    }
+
+    static long encode(int type, int slot, int button, boolean pressed, long nanoTime) {
+        return (button & BUTTON_MASK)
+                | (pressed ? 1L << PRESSED_SHIFT : 0L)
+                | ((type & TYPE_MASK) << TYPE_SHIFT)
+                | ((slot & SLOT_MASK) << SLOT_SHIFT)
+                | ((nanoTime / 1_000L) << TIMESTAMP_SHIFT);
+    }
+
+    /**
+     * @param event Encoded event.
+     * @return The type of the event, TYPE_BUTTON, TYPE_CONNECTED or TYPE_DISCONNECTED.
+     */
+    public static int type(long event) {
+        return (int) ((event >>> TYPE_SHIFT) & TYPE_MASK);
+    }
+
+    /**
+     * @param event Encoded event.
+     * @return The slot of the controller, to resolve with SdlControllerEngine.getController.
+     */
+    public static int slot(long event) {
+        return (int) ((event >>> SLOT_SHIFT) & SLOT_MASK);
+    }
+
+    /**
+     * @param event Encoded event.
+     * @return The SDL button index, only meaningful for TYPE_BUTTON.
+     */
+    public static int button(long event) {
+        return (int) (event & BUTTON_MASK);
+    }
+
+    /**
+     * @param event Encoded event.
+     * @return True for a press, false for a release, only meaningful for TYPE_BUTTON.
+     */
+    public static boolean isPressed(long event) {
+        return (event & (1L << PRESSED_SHIFT)) != 0;
+    }
+
+    /**
+     * @param event Encoded event.
+     * @return The System.nanoTime of the sample, divided by 1000 and truncated to its 43 lower bits.
+     */
+    public static long timestampMicros(long event) {
+        return event >>> TIMESTAMP_SHIFT;
+    }
+}
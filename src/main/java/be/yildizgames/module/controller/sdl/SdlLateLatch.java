@@ -0,0 +1,119 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package be.yildizgames.module.controller.sdl;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Learn how long sampling the controllers takes, to start the sample as late as possible before a simulation tick.
+ * The cost is smoothed like a network round trip time estimate: a moving average plus four times the mean deviation,
+ * and a fixed margin for the wake-up latency of the thread.
+ * Also measure the age of the input at each tick: the time between the end of the last sample completed before a
+ * tick deadline and that deadline.
+ *
+ * @author Grégory Van den Borre
+ */
+final class SdlLateLatch {
+
+    private static final long WAKE_UP_MARGIN_NANOS = 100_000L;
+
+    private final SdlLatencyHistogram histogram = new SdlLatencyHistogram();
+
+    private long averageCost;
+
+    private long costDeviation;
+
+    private volatile long offset = WAKE_UP_MARGIN_NANOS;
+
+    /**
+     * Tick deadline the next samples are measured against, 0 if none.
+     */
+    private long observedDeadline;
+
+    private long lastSampleEnd;
+
+    SdlLateLatch() {
+        super();
+    }
+
+    /**
+     * Record a completed sample.
+     * @param start System.nanoTime when the sample started.
+     * @param end System.nanoTime when the sample completed.
+     * @param tickDeadline Next simulation tick deadline known, 0 if none.
+     */
+    final void sampled(long start, long end, long tickDeadline) {
+        var cost = end - start;
+        if (this.averageCost == 0) {
+            this.averageCost = cost;
+            this.costDeviation = cost / 2;
+        } else {
+            var error = cost - this.averageCost;
+            this.averageCost += error / 8;
+            this.costDeviation += (Math.abs(error) - this.costDeviation) / 4;
+        }
+        this.offset = this.averageCost + 4 * this.costDeviation + WAKE_UP_MARGIN_NANOS;
+        if (this.observedDeadline != 0 && end > this.observedDeadline) {
+            this.histogram.record(this.lastSampleEnd == 0 ? -1 : this.observedDeadline - this.lastSampleEnd);
+            this.observedDeadline = 0;
+            this.lastSampleEnd = 0;
+        }
+        if (this.observedDeadline == 0 && tickDeadline - end > 0) {
+            this.observedDeadline = tickDeadline;
+        }
+        if (this.observedDeadline != 0) {
+            this.lastSampleEnd = end;
+        }
+    }
+
+    /**
+     * Wait until the latest time a sample can start and still complete before the deadline, or until the thread is
+     * interrupted. The interrupt status is not cleared.
+     * @param tickDeadline System.nanoTime of the simulation tick.
+     */
+    final void awaitSampleTime(long tickDeadline) {
+        var sampleTime = this.sampleTime(tickDeadline);
+        var remaining = sampleTime - System.nanoTime();
+        while (remaining > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            remaining = sampleTime - System.nanoTime();
+        }
+    }
+
+    /**
+     * @param tickDeadline System.nanoTime of the simulation tick.
+     * @return The latest System.nanoTime a sample can start and still complete before the deadline.
+     */
+    final long sampleTime(long tickDeadline) {
+        return tickDeadline - this.offset;
+    }
+
+    /**
+     * @return How long before a tick deadline the sample is started, in nanoseconds.
+     */
+    final long offset() {
+        return this.offset;
+    }
+
+    final SdlLatencyHistogram histogram() {
+        return this.histogram;
+    }
+}
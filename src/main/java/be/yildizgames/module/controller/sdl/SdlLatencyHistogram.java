@@ -0,0 +1,112 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package be.yildizgames.module.controller.sdl;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Distribution of durations in power of two buckets of microseconds, bucket 0 counting durations under 1µs and
+ * bucket n those between 2^(n-1) and 2^n µs. Recording does not allocate, reading can be done from any thread.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class SdlLatencyHistogram {
+
+    /**
+     * Number of buckets, the last one also counts everything above its lower bound.
+     */
+    public static final int BUCKETS = 32;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final AtomicLong misses = new AtomicLong();
+
+    SdlLatencyHistogram() {
+        super();
+    }
+
+    /**
+     * @param nanos Duration to record, a negative value is counted as a miss.
+     */
+    final void record(long nanos) {
+        if (nanos < 0) {
+            this.misses.incrementAndGet();
+            return;
+        }
+        var micros = nanos / 1_000L;
+        var bucket = micros == 0 ? 0 : Math.min(Long.SIZE - Long.numberOfLeadingZeros(micros), BUCKETS - 1);
+        this.counts.incrementAndGet(bucket);
+    }
+
+    /**
+     * @param bucket Bucket index, between 0 and BUCKETS - 1.
+     * @return The number of durations recorded in that bucket.
+     */
+    public long count(int bucket) {
+        return this.counts.get(bucket);
+    }
+
+    /**
+     * @param bucket Bucket index, between 0 and BUCKETS - 1.
+     * @return The exclusive upper bound of the bucket, in microseconds.
+     */
+    public static long upperBoundMicros(int bucket) {
+        return 1L << bucket;
+    }
+
+    /**
+     * @return The number of negative durations recorded, for example a sample completed after the deadline it aimed at.
+     */
+    public long misses() {
+        return this.misses.get();
+    }
+
+    /**
+     * @return The number of durations recorded, misses excluded.
+     */
+    public long total() {
+        var total = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += this.counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Clear all counts.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            this.counts.set(i, 0);
+        }
+        this.misses.set(0);
+    }
+
+    @Override
+    public String toString() {
+        var result = new StringBuilder("SdlLatencyHistogram{");
+        for (int i = 0; i < BUCKETS; i++) {
+            var count = this.counts.get(i);
+            if (count > 0) {
+                result.append("<").append(upperBoundMicros(i)).append("µs=").append(count).append(", ");
+            }
+        }
+        return result.append("misses=").append(this.misses.get()).append("}").toString();
+    }
+}
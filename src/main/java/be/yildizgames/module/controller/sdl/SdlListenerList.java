@@ -0,0 +1,102 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.controller.sdl;
+
+import java.util.Arrays;
+
+/**
+ * Copy on write list of listeners, ordered by decreasing priority, then by registration order.
+ * Listeners can be added and removed from any thread, every change publishing a new array. The dispatching thread
+ * iterates the array it read, without lock nor iterator, and a listener removed during a dispatch may still receive
+ * that event.
+ *
+ * @param <T> Listener type.
+ * @author Grégory Van den Borre
+ */
+final class SdlListenerList<T> {
+
+    private volatile T[] listeners;
+
+    /**
+     * Priority of each listener, only accessed under the lock.
+     */
+    private int[] priorities = new int[0];
+
+    /**
+     * @param empty Empty array of the listener type, used as initial value.
+     */
+    SdlListenerList(T[] empty) {
+        super();
+        this.listeners = empty;
+    }
+
+    final void add(T listener) {
+        this.add(listener, 0);
+    }
+
+    /**
+     * @param listener Listener to add.
+     * @param priority Listeners with a higher priority are called first, equal priorities keep the registration order.
+     */
+    final synchronized void add(T listener, int priority) {
+        var current = this.listeners;
+        var index = 0;
+        while (index < current.length && this.priorities[index] >= priority) {
+            index++;
+        }
+        var updated = Arrays.copyOf(current, current.length + 1);
+        System.arraycopy(current, index, updated, index + 1, current.length - index);
+        updated[index] = listener;
+        var updatedPriorities = Arrays.copyOf(this.priorities, current.length + 1);
+        System.arraycopy(this.priorities, index, updatedPriorities, index + 1, current.length - index);
+        updatedPriorities[index] = priority;
+        this.priorities = updatedPriorities;
+        this.listeners = updated;
+    }
+
+    /**
+     * Remove the first registration of a listener, compared by identity.
+     * @param listener Listener to remove.
+     * @return true if the listener was registered.
+     */
+    final synchronized boolean remove(T listener) {
+        var current = this.listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                var updated = Arrays.copyOf(current, current.length - 1);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                var updatedPriorities = Arrays.copyOf(this.priorities, current.length - 1);
+                System.arraycopy(this.priorities, i + 1, updatedPriorities, i, current.length - i - 1);
+                this.priorities = updatedPriorities;
+                this.listeners = updated;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The current listeners, the array must not be modified.
+     */
+    final T[] array() {
+        return this.listeners;
+    }
+
+    final boolean isEmpty() {
+        return this.listeners.length == 0;
+    }
+}
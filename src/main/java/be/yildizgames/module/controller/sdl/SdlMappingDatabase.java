@@ -0,0 +1,124 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.controller.sdl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Controller names indexed by GUID, read from files in the SDL gamecontrollerdb.txt format.
+ * Each line is "GUID,name,mapping,platform:name," and lines starting with # are comments. The lines for another
+ * platform are skipped, the other fields are not interpreted. The file bundled in this package is read first, then the
+ * given files in order, a later entry replacing an earlier one with the same GUID.
+ * An instance is never modified after being built, so it can be replaced by a single volatile write.
+ *
+ * @author Grégory Van den Borre
+ */
+final class SdlMappingDatabase {
+
+    private static final String BUNDLED = "gamecontrollerdb.txt";
+
+    private static final String PLATFORM_FIELD = "platform:";
+
+    private static final String PLATFORM = currentPlatform();
+
+    private final Map<String, String> names;
+
+    private SdlMappingDatabase(Map<String, String> names) {
+        super();
+        this.names = names;
+    }
+
+    /**
+     * Read the bundled mappings and the given files.
+     * @param files Mapping files overriding the bundled ones.
+     * @return The mappings.
+     * @throws IllegalStateException If a file cannot be read.
+     */
+    static SdlMappingDatabase load(List<Path> files) {
+        var names = new HashMap<String, String>(256);
+        try {
+            var bundled = SdlMappingDatabase.class.getResourceAsStream(BUNDLED);
+            if (bundled != null) {
+                try (var reader = new BufferedReader(new InputStreamReader(bundled, StandardCharsets.UTF_8))) {
+                    parse(reader, names);
+                }
+            }
+            for (var file : files) {
+                try (var reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    parse(reader, names);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return new SdlMappingDatabase(names);
+    }
+
+    /**
+     * @param guid GUID reported by SDL.
+     * @return The name mapped to this GUID, null if there is none.
+     */
+    final String name(String guid) {
+        return this.names.get(guid.toLowerCase(Locale.ROOT));
+    }
+
+    final int size() {
+        return this.names.size();
+    }
+
+    private static void parse(BufferedReader reader, Map<String, String> names) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty() || line.charAt(0) == '#') {
+                continue;
+            }
+            var guidEnd = line.indexOf(',');
+            var nameEnd = guidEnd < 0 ? -1 : line.indexOf(',', guidEnd + 1);
+            if (nameEnd < 0) {
+                continue;
+            }
+            var platform = line.indexOf(PLATFORM_FIELD, nameEnd);
+            if (platform >= 0 && !line.startsWith(PLATFORM, platform + PLATFORM_FIELD.length())) {
+                continue;
+            }
+            names.put(line.substring(0, guidEnd).trim().toLowerCase(Locale.ROOT), line.substring(guidEnd + 1, nameEnd).trim());
+        }
+    }
+
+    /**
+     * @return The platform name used by SDL for the current operating system.
+     */
+    private static String currentPlatform() {
+        var os = System.getProperty("os.name").toLowerCase(Locale.ROOT);
+        if (os.contains("windows")) {
+            return "Windows";
+        }
+        if (os.contains("mac")) {
+            return "Mac OS X";
+        }
+        return "Linux";
+    }
+}
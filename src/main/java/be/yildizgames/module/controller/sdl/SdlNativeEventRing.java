@@ -0,0 +1,111 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package be.yildizgames.module.controller.sdl;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Single producer, single consumer ring buffer written by the native library and read by the engine, without any
+ * downcall. Every input transition seen by SDL is kept, even when a button is pressed and released between two reads.
+ *
+ * Memory layout, shared with libcontroller-sdl:
+ * <pre>
+ * offset 0   int64 write index, published by the native side with a release store after writing the entry.
+ * offset 8   int64 read index, published by the engine with a release store once entries are consumed.
+ * offset 16  int32 capacity, number of entries, power of two.
+ * offset 64  entries, 16 bytes each: int32 controller id, int32 button, int32 pressed (0 or 1), uint32 SDL timestamp.
+ * </pre>
+ * A button value of {@link #DEVICE_LIST_CHANGED} signals a hotplug event instead of a button transition.
+ * The native side never writes over an entry that has not been consumed yet.
+ *
+ * @author Grégory Van den Borre
+ */
+final class SdlNativeEventRing {
+
+    static final int DEVICE_LIST_CHANGED = -1;
+
+    private static final long WRITE_INDEX_OFFSET = 0;
+
+    private static final long READ_INDEX_OFFSET = 8;
+
+    private static final long CAPACITY_OFFSET = 16;
+
+    private static final long HEADER_SIZE = 64;
+
+    private static final long ENTRY_SIZE = 16;
+
+    private static final VarHandle INDEX = ValueLayout.JAVA_LONG.varHandle();
+
+    private final MemorySegment ring;
+
+    private final long mask;
+
+    private long readIndex;
+
+    /**
+     * Map the ring buffer exposed by the native library.
+     * @param address Address returned by the native getEventRing function.
+     */
+    SdlNativeEventRing(MemorySegment address) {
+        super();
+        var capacity = address.reinterpret(HEADER_SIZE).get(ValueLayout.JAVA_INT, CAPACITY_OFFSET);
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalStateException("Native event ring capacity must be a power of two: " + capacity);
+        }
+        this.ring = address.reinterpret(HEADER_SIZE + capacity * ENTRY_SIZE);
+        this.mask = capacity - 1L;
+        this.readIndex = (long) INDEX.getAcquire(this.ring, READ_INDEX_OFFSET);
+    }
+
+    /**
+     * Consume every transition published since the last call.
+     * @param consumer Receive the transitions, in the order they were written.
+     */
+    final void drain(TransitionConsumer consumer) {
+        var writeIndex = (long) INDEX.getAcquire(this.ring, WRITE_INDEX_OFFSET);
+        var read = this.readIndex;
+        while (read < writeIndex) {
+            var offset = HEADER_SIZE + (read & this.mask) * ENTRY_SIZE;
+            consumer.transition(
+                    this.ring.get(ValueLayout.JAVA_INT, offset),
+                    this.ring.get(ValueLayout.JAVA_INT, offset + 4),
+                    this.ring.get(ValueLayout.JAVA_INT, offset + 8) != 0,
+                    Integer.toUnsignedLong(this.ring.get(ValueLayout.JAVA_INT, offset + 12)));
+            read++;
+        }
+        if (read != this.readIndex) {
+            this.readIndex = read;
+            INDEX.setRelease(this.ring, READ_INDEX_OFFSET, read);
+        }
+    }
+
+    @FunctionalInterface
+    interface TransitionConsumer {
+
+        /**
+         * Called for each transition read from the ring.
+         * @param controllerId SDL instance id of the controller.
+         * @param button Button index, or DEVICE_LIST_CHANGED.
+         * @param pressed True if the button was pressed, false if released.
+         * @param timestamp SDL event timestamp, in milliseconds.
+         */
+        void transition(int controllerId, int button, boolean pressed, long timestamp);
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package be.yildizgames.module.controller.sdl;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SymbolLookup;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Downcall handles to the functions exported by libcontroller-sdl.
+ * Handles are resolved once per library and linkage mode, and kept for the lifetime of the JVM: the libraries are
+ * looked up in the global arena so their symbols stay valid between two runs of an engine.
+ *
+ * @author Grégory Van den Borre
+ */
+final class SdlNativeLibrary {
+
+    private static final Map<Key, SdlNativeLibrary> LIBRARIES = new ConcurrentHashMap<>();
+
+    final MethodHandle initControlsFunction;
+
+    final MethodHandle terminateControlsFunction;
+
+    final MethodHandle updateControllerStatesFunction;
+
+    /**
+     * Same native function as updateControllerStatesFunction, but never linked as critical because it may invoke
+     * the callback registered with setControllerCallbackFunction.
+     */
+    final MethodHandle updateWithCallbackFunction;
+
+    final MethodHandle getControllerStateFunction;
+
+    final MethodHandle getControllerNameFunction;
+
+    final MethodHandle getControllerGuidFunction;
+
+    final MethodHandle isControllerListChangedFunction;
+
+    final MethodHandle getControllersFunction;
+
+    final MethodHandle getControllerSizeFunction;
+
+    /**
+     * Optional, null if the library does not export waitEvent.
+     */
+    final MethodHandle waitEventFunction;
+
+    /**
+     * Optional, null if the library does not export getControllerStates.
+     */
+    final MethodHandle getControllerStatesFunction;
+
+    /**
+     * Optional, null if the library does not export getEventRing.
+     */
+    final MethodHandle getEventRingFunction;
+
+    /**
+     * Optional, null if the library does not export setControllerCallback.
+     */
+    final MethodHandle setControllerCallbackFunction;
+
+    /**
+     * Optional, null if the library does not export getControllerPowerLevel.
+     */
+    final MethodHandle getControllerPowerLevelFunction;
+
+    /**
+     * Optional, null if the library does not export getControllerButtons, the 64 bits variant of getControllerState.
+     */
+    final MethodHandle getControllerButtonsFunction;
+
+    private SdlNativeLibrary(SymbolLookup library, boolean critical) {
+        super();
+        var linker = Linker.nativeLinker();
+        // Only short functions that never block nor call back into Java can be linked as critical.
+        var trivial = critical ? new Linker.Option[]{Linker.Option.critical(false)} : new Linker.Option[0];
+        this.initControlsFunction = linker.downcallHandle(find(library, "initControls"), FunctionDescriptor.ofVoid());
+        this.terminateControlsFunction = linker.downcallHandle(find(library, "terminateControls"), FunctionDescriptor.ofVoid());
+        this.updateControllerStatesFunction = linker.downcallHandle(find(library, "update"), FunctionDescriptor.ofVoid(), trivial);
+        this.updateWithCallbackFunction = linker.downcallHandle(find(library, "update"), FunctionDescriptor.ofVoid());
+        this.getControllerStateFunction = linker.downcallHandle(find(library, "getControllerState"), FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.JAVA_INT), trivial);
+        this.getControllerNameFunction = linker.downcallHandle(find(library, "getControllerName"), FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.JAVA_INT));
+        this.getControllerGuidFunction = linker.downcallHandle(find(library, "getControllerGuid"), FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.JAVA_INT));
+        this.isControllerListChangedFunction = linker.downcallHandle(find(library, "isControllerListChanged"), FunctionDescriptor.of(ValueLayout.JAVA_BOOLEAN), trivial);
+        this.getControllerSizeFunction = linker.downcallHandle(find(library, "getControllerNumber"), FunctionDescriptor.of(ValueLayout.JAVA_INT));
+        this.getControllersFunction = linker.downcallHandle(find(library, "getControllers"), FunctionDescriptor.of(ValueLayout.ADDRESS));
+        this.waitEventFunction = library.find("waitEvent")
+                .map(a -> linker.downcallHandle(a, FunctionDescriptor.of(ValueLayout.JAVA_BOOLEAN, ValueLayout.JAVA_INT)))
+                .orElse(null);
+        this.getControllerStatesFunction = library.find("getControllerStates")
+                .map(a -> linker.downcallHandle(a, FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_INT), trivial))
+                .orElse(null);
+        this.getEventRingFunction = library.find("getEventRing")
+                .map(a -> linker.downcallHandle(a, FunctionDescriptor.of(ValueLayout.ADDRESS)))
+                .orElse(null);
+        this.setControllerCallbackFunction = library.find("setControllerCallback")
+                .map(a -> linker.downcallHandle(a, FunctionDescriptor.ofVoid(ValueLayout.ADDRESS)))
+                .orElse(null);
+        this.getControllerPowerLevelFunction = library.find("getControllerPowerLevel")
+                .map(a -> linker.downcallHandle(a, FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.JAVA_INT)))
+                .orElse(null);
+        this.getControllerButtonsFunction = library.find("getControllerButtons")
+                .map(a -> linker.downcallHandle(a, FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.JAVA_INT), trivial))
+                .orElse(null);
+    }
+
+    /**
+     * Provide the handles for a library, resolving them on the first call only.
+     * @param lib Path of the native library.
+     * @param sdl Path of the SDL library, loaded before the native library.
+     * @param critical True to link the short, non blocking functions with Linker.Option.critical.
+     * @return The handles for the library.
+     */
+    static SdlNativeLibrary load(Path lib, Path sdl, boolean critical) {
+        return LIBRARIES.computeIfAbsent(new Key(lib.toAbsolutePath().normalize(), critical), k -> {
+            SymbolLookup.libraryLookup(sdl, Arena.global());
+            return new SdlNativeLibrary(SymbolLookup.libraryLookup(k.lib(), Arena.global()), k.critical());
+        });
+    }
+
+    private static MemorySegment find(SymbolLookup library, String name) {
+        return library.find(name).orElseThrow(() -> new IllegalStateException("Symbol " + name + " not found in native library"));
+    }
+
+    private record Key(Path lib, boolean critical) {}
+}
@@ -0,0 +1,44 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package be.yildizgames.module.controller.sdl;
+
+/**
+ * Behavior of the asynchronous dispatch when the listeners do not keep up and the event queue is full.
+ *
+ * @author Grégory Van den Borre
+ */
+public enum SdlOverflowPolicy {
+
+    /**
+     * The poll thread waits until the listeners free some room, no event is lost.
+     */
+    BLOCK,
+
+    /**
+     * The oldest queued button events are discarded to make room for the new ones. Connection and disconnection
+     * events are never discarded: while one of them is the oldest entry of the full queue, the new button event is
+     * discarded instead.
+     */
+    DROP_OLDEST,
+
+    /**
+     * The changes of a controller are held back while the queue is full, and only the difference between the last
+     * delivered state and the current one is queued once there is room, intermediate presses are merged.
+     */
+    COALESCE
+}
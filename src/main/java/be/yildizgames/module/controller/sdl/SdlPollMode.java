@@ -0,0 +1,45 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package be.yildizgames.module.controller.sdl;
+
+/**
+ * Strategies used by the engine to decide when to sample the controllers.
+ *
+ * @author Grégory Van den Borre
+ */
+public enum SdlPollMode {
+
+    /**
+     * Sample the controllers at the configured poll rate, whether something happened or not.
+     */
+    FIXED_RATE,
+
+    /**
+     * Block in the native library until SDL reports an input or hotplug event, and only sample then.
+     * Requires the native library to export bool waitEvent(int timeoutMs), returning true when an event was received
+     * before the timeout, otherwise the engine falls back to FIXED_RATE.
+     * A stub library exporting the same symbols can be given to the engine constructor to script events.
+     */
+    EVENT_DRIVEN,
+
+    /**
+     * Same as FIXED_RATE, but the thread parks until shortly before each deadline and spins for the remaining time,
+     * trading some CPU for a wake-up jitter well under the park granularity. Meant for rates of 1kHz and above.
+     */
+    LOW_LATENCY
+}
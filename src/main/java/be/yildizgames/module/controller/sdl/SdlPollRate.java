@@ -0,0 +1,57 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.controller.sdl;
+
+/**
+ * Frequencies at which the engine can sample the controllers.
+ *
+ * @author Grégory Van den Borre
+ */
+public enum SdlPollRate {
+
+    HZ_60(60),
+
+    HZ_120(120),
+
+    HZ_250(250),
+
+    HZ_500(500),
+
+    HZ_1000(1000),
+
+    HZ_2000(2000);
+
+    private final int frequency;
+
+    SdlPollRate(int frequency) {
+        this.frequency = frequency;
+    }
+
+    /**
+     * @return The number of cycles per second.
+     */
+    public final int frequency() {
+        return this.frequency;
+    }
+
+    /**
+     * @return The duration of one cycle, in nanoseconds.
+     */
+    public final long periodNanos() {
+        return 1_000_000_000L / this.frequency;
+    }
+}
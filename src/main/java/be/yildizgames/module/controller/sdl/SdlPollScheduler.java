@@ -0,0 +1,158 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.controller.sdl;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Paces the poll loop on absolute deadlines, so the time spent in a cycle does not shift the following ones.
+ * When a cycle ends after its deadline, it is counted as an overrun and the missed periods are skipped instead
+ * of being replayed in a burst.
+ * In spin mode, the thread parks until shortly before the deadline then busy waits, to reduce the wake-up jitter.
+ * The jitter, the delay between a deadline and the actual wake up, is measured in both modes.
+ *
+ * @author Grégory Van den Borre
+ */
+final class SdlPollScheduler {
+
+    /**
+     * Time before the deadline at which the thread stops parking and starts spinning, covering the park granularity.
+     */
+    private static final long SPIN_THRESHOLD_NANOS = 200_000L;
+
+    private final long period;
+
+    private final boolean spin;
+
+    private volatile long averageJitter;
+
+    private volatile long maxJitter;
+
+    private final AtomicLong overruns = new AtomicLong();
+
+    private long deadline;
+
+    SdlPollScheduler(SdlPollRate rate, boolean spin) {
+        super();
+        this.period = rate.periodNanos();
+        this.spin = spin;
+    }
+
+    /**
+     * Set the first deadline one period from now.
+     */
+    final void start() {
+        this.deadline = System.nanoTime() + this.period;
+    }
+
+    /**
+     * Wait until the end of the current cycle, or until the thread is interrupted. The interrupt status is not cleared.
+     * @return true if the cycle completed within its budget, false if it overran.
+     */
+    final boolean awaitNextCycle() {
+        var remaining = this.deadline - System.nanoTime();
+        if (remaining < 0) {
+            this.overruns.incrementAndGet();
+            this.deadline += ((-remaining / this.period) + 1) * this.period;
+            return false;
+        }
+        var parkDeadline = this.spin ? this.deadline - SPIN_THRESHOLD_NANOS : this.deadline;
+        remaining = parkDeadline - System.nanoTime();
+        while (remaining > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            remaining = parkDeadline - System.nanoTime();
+        }
+        if (this.spin) {
+            while (this.deadline - System.nanoTime() > 0) {
+                Thread.onSpinWait();
+            }
+        }
+        this.recordJitter(System.nanoTime() - this.deadline);
+        this.deadline += this.period;
+        return true;
+    }
+
+    private void recordJitter(long jitter) {
+        var value = Math.max(jitter, 0);
+        this.averageJitter = this.averageJitter + ((value - this.averageJitter) >> 4);
+        if (value > this.maxJitter) {
+            this.maxJitter = value;
+        }
+    }
+
+    /**
+     * Wait until the end of the current cycle, or until the thread is unparked or interrupted, whichever comes first.
+     * The interrupt status is not cleared.
+     * No overrun is counted: this is used when the sampling is also driven by other events.
+     * @return true if the end of the cycle was reached, false if woken up before.
+     */
+    final boolean awaitNextCycleOrWakeUp() {
+        return this.awaitNextCycleOrWakeUp(this.deadline);
+    }
+
+    /**
+     * Wait until the end of the current cycle, the given time, or until the thread is unparked or interrupted, whichever
+     * comes first. The interrupt status is not cleared.
+     * @param limit System.nanoTime after which the wait stops even if the cycle did not end.
+     * @return true if the end of the cycle was reached, false if stopped before.
+     */
+    final boolean awaitNextCycleOrWakeUp(long limit) {
+        var now = System.nanoTime();
+        var remaining = this.deadline - now;
+        if (remaining > 0) {
+            LockSupport.parkNanos(Math.min(remaining, limit - now));
+            remaining = this.deadline - System.nanoTime();
+            if (remaining > 0) {
+                return false;
+            }
+        }
+        this.deadline += ((-remaining / this.period) + 1) * this.period;
+        return true;
+    }
+
+    /**
+     * @return The duration of one cycle, in nanoseconds.
+     */
+    final long period() {
+        return this.period;
+    }
+
+    /**
+     * @return The moving average of the delay between a deadline and the actual wake up, in nanoseconds.
+     */
+    final long averageJitter() {
+        return this.averageJitter;
+    }
+
+    /**
+     * @return The largest delay between a deadline and the actual wake up, in nanoseconds.
+     */
+    final long maxJitter() {
+        return this.maxJitter;
+    }
+
+    /**
+     * @return The number of cycles that took longer than their budget since the creation of this scheduler.
+     */
+    final long overruns() {
+        return this.overruns.get();
+    }
+}
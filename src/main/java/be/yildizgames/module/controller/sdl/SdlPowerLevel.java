@@ -0,0 +1,62 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package be.yildizgames.module.controller.sdl;
+
+/**
+ * Battery level of a controller, as reported by SDL_JoystickCurrentPowerLevel.
+ *
+ * @author Grégory Van den Borre
+ */
+public enum SdlPowerLevel {
+
+    UNKNOWN(-1),
+
+    EMPTY(0),
+
+    LOW(1),
+
+    MEDIUM(2),
+
+    FULL(3),
+
+    WIRED(4),
+
+    MAX(5);
+
+    /**
+     * Value of the matching SDL_JoystickPowerLevel constant.
+     */
+    private final int sdlValue;
+
+    SdlPowerLevel(int sdlValue) {
+        this.sdlValue = sdlValue;
+    }
+
+    /**
+     * @param sdlValue Value of the SDL_JoystickPowerLevel enumeration, from -1 to 5.
+     * @return The matching power level, UNKNOWN for any other value.
+     */
+    static SdlPowerLevel fromSdl(int sdlValue) {
+        for (var level : values()) {
+            if (level.sdlValue == sdlValue) {
+                return level;
+            }
+        }
+        return UNKNOWN;
+    }
+}
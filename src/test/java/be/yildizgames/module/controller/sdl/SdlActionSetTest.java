@@ -0,0 +1,101 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.controller.sdl;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class SdlActionSetTest {
+
+    @Nested
+    class Evaluate {
+
+        @Test
+        void singleButton() {
+            var set = SdlActionSet.builder().bind("jump", 0).build();
+            Assertions.assertEquals(1L, set.evaluate(1L));
+            Assertions.assertEquals(1L, set.evaluate(0b111L));
+            Assertions.assertEquals(0L, set.evaluate(0b110L));
+        }
+
+        @Test
+        void chordNeedsAllButtons() {
+            var set = SdlActionSet.builder().bind("special", 1, 2).build();
+            Assertions.assertEquals(0L, set.evaluate(0b010L));
+            Assertions.assertEquals(0L, set.evaluate(0b100L));
+            Assertions.assertEquals(1L, set.evaluate(0b110L));
+        }
+
+        @Test
+        void severalBindingsForOneAction() {
+            var set = SdlActionSet.builder().bind("jump", 0).bind("fire", 1).bind("jump", 3, 4).build();
+            Assertions.assertEquals(2, set.size());
+            Assertions.assertEquals(0b01L, set.evaluate(1L));
+            Assertions.assertEquals(0b01L, set.evaluate(0b11000L));
+            Assertions.assertEquals(0L, set.evaluate(0b01000L));
+            Assertions.assertEquals(0b11L, set.evaluate(0b00011L));
+        }
+
+        @Test
+        void highestButton() {
+            var set = SdlActionSet.builder().bind("misc", 63).build();
+            Assertions.assertEquals(1L, set.evaluate(Long.MIN_VALUE));
+        }
+    }
+
+    @Nested
+    class Builder {
+
+        @Test
+        void actionIndexInDeclarationOrder() {
+            var set = SdlActionSet.builder().bind("jump", 0).bind("fire", 1).bind("jump", 2).build();
+            Assertions.assertEquals(0, set.action("jump"));
+            Assertions.assertEquals(1, set.action("fire"));
+            Assertions.assertEquals(-1, set.action("crouch"));
+            Assertions.assertEquals("fire", set.name(1));
+        }
+
+        @Test
+        void maxActions() {
+            var builder = SdlActionSet.builder();
+            for (int i = 0; i < SdlActionSet.MAX_ACTIONS; i++) {
+                builder.bind("action" + i, i);
+            }
+            // Binding an existing action again is still possible.
+            builder.bind("action0", 1);
+            Assertions.assertThrows(IllegalArgumentException.class, () -> builder.bind("tooMany", 0));
+            var set = builder.build();
+            Assertions.assertEquals(SdlActionSet.MAX_ACTIONS, set.size());
+            Assertions.assertEquals(Long.MIN_VALUE, set.evaluate(Long.MIN_VALUE));
+        }
+
+        @Test
+        void noButton() {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> SdlActionSet.builder().bind("jump"));
+        }
+
+        @Test
+        void invalidButton() {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> SdlActionSet.builder().bind("jump", 64));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> SdlActionSet.builder().bind("jump", -1));
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.controller.sdl;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class SdlActionTrackerTest {
+
+    private static final class Fixture {
+
+        private final SdlControllerRegistry registry = new SdlControllerRegistry();
+
+        private final SdlController controller = new SdlController("test", "guid", 1);
+
+        private final SdlActionTracker tracker = new SdlActionTracker();
+
+        private final List<String> received = new ArrayList<>();
+
+        private final SdlActionListener[] listeners = {(c, set, action, active) -> this.received.add(set.name(action) + (active ? " started" : " ended"))};
+
+        Fixture() {
+            this.registry.add(this.controller);
+            this.tracker.reset(this.controller.slot);
+        }
+
+        void cycle(SdlActionSet set, long state) {
+            var changed = this.registry.state(this.controller.slot) != state;
+            this.registry.state(this.controller.slot, state);
+            this.tracker.update(set, this.registry, changed, this.listeners);
+        }
+    }
+
+    private static final SdlActionSet GAME = SdlActionSet.builder().bind("jump", 0).bind("fire", 1, 2).build();
+
+    private static final SdlActionSet MENU = SdlActionSet.builder().bind("select", 0).bind("back", 1).build();
+
+    @Nested
+    class Update {
+
+        @Test
+        void startAndEnd() {
+            var fixture = new Fixture();
+            fixture.cycle(GAME, 0L);
+            fixture.cycle(GAME, 0b001L);
+            fixture.cycle(GAME, 0b111L);
+            fixture.cycle(GAME, 0b011L);
+            fixture.cycle(GAME, 0L);
+            Assertions.assertEquals(List.of("jump started", "fire started", "fire ended", "jump ended"), fixture.received);
+            Assertions.assertEquals(0L, fixture.controller.activeActions);
+        }
+
+        @Test
+        void activeActionsAreExposed() {
+            var fixture = new Fixture();
+            fixture.cycle(GAME, 0L);
+            fixture.cycle(GAME, 0b111L);
+            Assertions.assertEquals(0b11L, fixture.controller.activeActions);
+        }
+
+        @Test
+        void heldButtonsDoNotFireOnSwitch() {
+            var fixture = new Fixture();
+            fixture.cycle(GAME, 0L);
+            fixture.cycle(GAME, 0b001L);
+            fixture.cycle(MENU, 0b001L);
+            Assertions.assertEquals(List.of("jump started"), fixture.received);
+            Assertions.assertEquals(0b01L, fixture.controller.activeActions);
+            fixture.cycle(MENU, 0b011L);
+            fixture.cycle(MENU, 0L);
+            Assertions.assertEquals(List.of("jump started", "back started", "select ended", "back ended"), fixture.received);
+        }
+
+        @Test
+        void noSet() {
+            var fixture = new Fixture();
+            fixture.cycle(null, 0b001L);
+            fixture.cycle(GAME, 0b001L);
+            fixture.cycle(null, 0L);
+            Assertions.assertTrue(fixture.received.isEmpty());
+            Assertions.assertEquals(0L, fixture.controller.activeActions);
+        }
+
+        @Test
+        void throwingListenerDoesNotStopOthers() {
+            var fixture = new Fixture();
+            var received = new ArrayList<String>();
+            SdlActionListener[] listeners = {
+                    (c, set, action, active) -> {
+                        throw new IllegalStateException("test");
+                    },
+                    (c, set, action, active) -> received.add(set.name(action))
+            };
+            fixture.registry.state(fixture.controller.slot, 0b111L);
+            fixture.tracker.update(GAME, fixture.registry, true, new SdlActionListener[0]);
+            fixture.registry.state(fixture.controller.slot, 0L);
+            fixture.tracker.update(GAME, fixture.registry, true, listeners);
+            Assertions.assertEquals(List.of("jump", "fire"), received);
+        }
+    }
+
+    @Nested
+    class Disconnected {
+
+        @Test
+        void activeActionsAreEnded() {
+            var fixture = new Fixture();
+            fixture.cycle(GAME, 0L);
+            fixture.cycle(GAME, 0b111L);
+            fixture.received.clear();
+            fixture.tracker.disconnected(fixture.controller.slot, fixture.controller, fixture.listeners);
+            Assertions.assertEquals(List.of("jump ended", "fire ended"), fixture.received);
+            Assertions.assertEquals(0L, fixture.controller.activeActions);
+        }
+
+        @Test
+        void nothingActive() {
+            var fixture = new Fixture();
+            fixture.cycle(GAME, 0L);
+            fixture.tracker.disconnected(fixture.controller.slot, fixture.controller, fixture.listeners);
+            Assertions.assertTrue(fixture.received.isEmpty());
+        }
+    }
+}
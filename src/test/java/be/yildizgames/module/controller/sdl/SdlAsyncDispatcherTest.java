@@ -0,0 +1,220 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.controller.sdl;
+
+import be.yildizgames.module.controller.Controller;
+import be.yildizgames.module.controller.ControllerListener;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class SdlAsyncDispatcherTest {
+
+    /**
+     * Executor running the submitted tasks only when asked, to control when the listeners are called.
+     */
+    private static final class ManualExecutor implements Executor {
+
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable command) {
+            this.tasks.add(command);
+        }
+
+        void runAll() {
+            while (!this.tasks.isEmpty()) {
+                this.tasks.poll().run();
+            }
+        }
+    }
+
+    private static final class Fixture {
+
+        private final ManualExecutor executor = new ManualExecutor();
+
+        private final SdlControllerRegistry registry = new SdlControllerRegistry();
+
+        private final SdlController controller = new SdlController("test", "guid", 7);
+
+        private final List<String> received = new ArrayList<>();
+
+        private final SdlAsyncDispatcher dispatcher;
+
+        Fixture(SdlOverflowPolicy policy, int capacity) {
+            this(policy, capacity, null);
+        }
+
+        /**
+         * @param executor Executor given to the dispatcher, null to use the manual executor.
+         */
+        Fixture(SdlOverflowPolicy policy, int capacity, Executor executor) {
+            this.registry.add(this.controller);
+            var listeners = new SdlListenerList<>(new ControllerListener[0]);
+            listeners.add(new ControllerListener() {
+                @Override
+                public void controllerConnected(Controller controller) {
+                    received.add("connected");
+                }
+
+                @Override
+                public void controllerDisconnected(Controller controller) {
+                    received.add("disconnected");
+                }
+            });
+            var subscriptions = new SdlButtonSubscriptions();
+            subscriptions.add((c, button, pressed, nanos) -> this.received.add((pressed ? "press " : "release ") + button), null, SdlButtonSubscriptions.ALL_BUTTONS, null);
+            this.dispatcher = new SdlAsyncDispatcher(executor == null ? this.executor : executor, policy, capacity, listeners, subscriptions, new SdlListenerList<>(new SdlButtonEventListener[0]), this.registry);
+        }
+
+        /**
+         * Update the registry state as the engine does before notifying the dispatcher.
+         */
+        void button(int button, boolean pressed) {
+            var state = this.registry.state(this.controller.slot);
+            this.registry.state(this.controller.slot, pressed ? state | (1L << button) : state & ~(1L << button));
+            this.dispatcher.button(this.controller, button, pressed, 0, SdlButtonEvent.NO_TIMESTAMP);
+        }
+    }
+
+    @Nested
+    class Coalesce {
+
+        @Test
+        void heldBackChangesAreFlushedWhenRoomIsAvailable() {
+            var fixture = new Fixture(SdlOverflowPolicy.COALESCE, 2);
+            fixture.dispatcher.connected(fixture.controller, 0);
+            fixture.button(0, true);
+            // The queue is full: these changes are held back.
+            fixture.button(1, true);
+            fixture.button(0, false);
+            fixture.button(2, true);
+            fixture.button(2, false);
+            fixture.dispatcher.endCycle(0);
+            fixture.executor.runAll();
+            Assertions.assertEquals(List.of("connected", "press 0"), fixture.received);
+            fixture.dispatcher.endCycle(0);
+            fixture.executor.runAll();
+            // Button 2 was pressed and released while held back, only the net changes are delivered.
+            Assertions.assertEquals(List.of("connected", "press 0", "release 0", "press 1"), fixture.received);
+        }
+
+        @Test
+        void nothingHeldBackWhenQueueHasRoom() {
+            var fixture = new Fixture(SdlOverflowPolicy.COALESCE, 8);
+            fixture.button(3, true);
+            fixture.button(3, false);
+            fixture.dispatcher.endCycle(0);
+            fixture.executor.runAll();
+            Assertions.assertEquals(List.of("press 3", "release 3"), fixture.received);
+        }
+
+        @Test
+        void moreChangesThanCapacityAreEventuallyDelivered() {
+            var fixture = new Fixture(SdlOverflowPolicy.COALESCE, 2);
+            fixture.button(0, true);
+            fixture.button(1, true);
+            fixture.button(2, true);
+            fixture.button(3, true);
+            fixture.button(4, true);
+            fixture.dispatcher.endCycle(0);
+            fixture.executor.runAll();
+            Assertions.assertEquals(List.of("press 0", "press 1"), fixture.received);
+            // 3 changes held back, more than the capacity of 2: they are flushed over the next cycles.
+            fixture.dispatcher.endCycle(0);
+            fixture.executor.runAll();
+            fixture.dispatcher.endCycle(0);
+            fixture.executor.runAll();
+            Assertions.assertEquals(List.of("press 0", "press 1", "press 2", "press 3", "press 4"), fixture.received);
+            // Nothing is held back anymore, the next change goes straight to the queue.
+            fixture.button(0, false);
+            fixture.dispatcher.endCycle(0);
+            fixture.executor.runAll();
+            Assertions.assertEquals("release 0", fixture.received.get(5));
+        }
+    }
+
+    @Nested
+    class Block {
+
+        @Test
+        void closeReleasesBlockedPut() {
+            var fixture = new Fixture(SdlOverflowPolicy.BLOCK, 2);
+            fixture.button(0, true);
+            fixture.button(1, true);
+            var closer = new Thread(() -> {
+                LockSupport.parkNanos(50_000_000L);
+                fixture.dispatcher.close();
+            });
+            closer.start();
+            Assertions.assertTimeoutPreemptively(Duration.ofSeconds(5), () -> fixture.button(2, true));
+        }
+
+        @Test
+        void rejectedExecutionIsNotRetried() {
+            var submissions = new AtomicInteger();
+            var fixture = new Fixture(SdlOverflowPolicy.BLOCK, 2, command -> {
+                submissions.incrementAndGet();
+                throw new RejectedExecutionException();
+            });
+            fixture.button(0, true);
+            fixture.button(1, true);
+            Assertions.assertTimeoutPreemptively(Duration.ofSeconds(5), () -> fixture.button(2, true));
+            fixture.button(3, true);
+            fixture.dispatcher.endCycle(0);
+            Assertions.assertEquals(1, submissions.get());
+        }
+    }
+
+    @Nested
+    class DropOldest {
+
+        @Test
+        void connectionEventIsNeverDropped() {
+            var fixture = new Fixture(SdlOverflowPolicy.DROP_OLDEST, 2);
+            fixture.dispatcher.connected(fixture.controller, 0);
+            fixture.button(0, true);
+            fixture.button(1, true);
+            fixture.dispatcher.endCycle(0);
+            fixture.executor.runAll();
+            Assertions.assertEquals(List.of("connected", "press 0"), fixture.received);
+        }
+
+        @Test
+        void oldestButtonIsDropped() {
+            var fixture = new Fixture(SdlOverflowPolicy.DROP_OLDEST, 2);
+            fixture.button(0, true);
+            fixture.button(1, true);
+            fixture.button(2, true);
+            fixture.dispatcher.endCycle(0);
+            fixture.executor.runAll();
+            Assertions.assertEquals(List.of("press 1", "press 2"), fixture.received);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package be.yildizgames.module.controller.sdl;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class SdlButtonSubscriptionsTest {
+
+    private static final long BUTTON_1 = 1L << SdlControllerEngine.SDL_BUTTON_1;
+
+    private final SdlControllerRegistry registry = new SdlControllerRegistry();
+
+    private final SdlButtonSubscriptions subscriptions = new SdlButtonSubscriptions();
+
+    private final List<String> received = new ArrayList<>();
+
+    private SdlController connect(String guid, int id) {
+        var controller = new SdlController("test", guid, id);
+        this.registry.add(controller);
+        this.subscriptions.invalidate();
+        return controller;
+    }
+
+    private void disconnect(SdlController controller) {
+        this.registry.remove(controller.id());
+        this.subscriptions.invalidate();
+    }
+
+    private void subscribe(String name, SdlController controller) {
+        this.subscriptions.add((c, button, pressed, nanoTime) -> this.received.add(name + " " + c.id()), controller, BUTTON_1, null);
+    }
+
+    private void press(SdlController controller) {
+        this.subscriptions.dispatch(this.registry, controller, SdlControllerEngine.SDL_BUTTON_1, true, 0L);
+    }
+
+    @Nested
+    class Filter {
+
+        @Test
+        void otherControllerIgnored() {
+            var first = connect("guid", 1);
+            var second = connect("guid", 2);
+            subscribe("first", first);
+            press(second);
+            press(first);
+            Assertions.assertEquals(List.of("first 1"), received);
+        }
+
+        @Test
+        void unfilteredAcceptsAll() {
+            var first = connect("guid", 1);
+            var second = connect("other", 2);
+            subscribe("all", null);
+            press(first);
+            press(second);
+            Assertions.assertEquals(List.of("all 1", "all 2"), received);
+        }
+    }
+
+    @Nested
+    class Reconnect {
+
+        @Test
+        void subscriptionEndsWithController() {
+            var controller = connect("guid", 1);
+            subscribe("pad", controller);
+            disconnect(controller);
+            // Same model connected again, or an identical pad of another player: not the same controller.
+            press(connect("guid", 4));
+            Assertions.assertTrue(received.isEmpty());
+        }
+
+        @Test
+        void registeredAgainForNewInstance() {
+            var controller = connect("guid", 1);
+            subscribe("old", controller);
+            disconnect(controller);
+            var reconnected = connect("guid", 4);
+            subscribe("new", reconnected);
+            press(reconnected);
+            Assertions.assertEquals(List.of("new 4"), received);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package be.yildizgames.module.controller.sdl;
+
+import be.yildizgames.module.controller.Controller;
+import be.yildizgames.module.controller.ControllerListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Priority order and consumption of the button events, driven by the host with pollOnce on the stub native library.
+ *
+ * @author Grégory Van den Borre
+ */
+@DisabledOnOs(OS.WINDOWS)
+class SdlControllerEngineDispatchTest {
+
+    private static final int ID = 9;
+
+    private static final int START = 1 << SdlControllerEngine.SDL_BUTTON_START;
+
+    private static final int BUTTON_1 = 1 << SdlControllerEngine.SDL_BUTTON_1;
+
+    private static SdlStubLibrary stub;
+
+    private final List<String> received = new ArrayList<>();
+
+    private SdlControllerEngine engine;
+
+    @BeforeAll
+    static void buildStub() throws Exception {
+        stub = SdlStubLibrary.get();
+    }
+
+    @BeforeEach
+    void open() throws Throwable {
+        this.engine = new SdlControllerEngine(stub.path, stub.path).setHotplugInterval(Duration.ZERO);
+        this.engine.addControllerListener(new ControllerListener() {
+            @Override
+            public void controllerPressStart(Controller controller) {
+                received.add("controller pressStart");
+            }
+
+            @Override
+            public void controllerReleaseStart(Controller controller) {
+                received.add("controller releaseStart");
+            }
+
+            @Override
+            public void controllerPress1(Controller controller) {
+                received.add("controller press1");
+            }
+        });
+        this.engine.addButtonListener((controller, button, pressed, nanoTime) -> this.received.add("button " + button));
+        this.engine.open();
+        stub.connect(ID);
+        this.engine.pollOnce();
+    }
+
+    @AfterEach
+    void close() throws Throwable {
+        stub.disconnect(ID);
+        this.engine.pollOnce();
+        this.engine.close();
+    }
+
+    /**
+     * @param name Name recorded when the listener is called.
+     * @param consumed Button consumed by the listener on a press, -1 for none.
+     */
+    private SdlButtonEventListener listener(String name, int consumed) {
+        return event -> {
+            this.received.add(name);
+            if (event.button() == consumed && event.isPressed()) {
+                event.consume();
+            }
+        };
+    }
+
+    private void state(int state) throws Throwable {
+        stub.setState(ID, state);
+        this.engine.pollOnce();
+    }
+
+    @Test
+    void higherPriorityFirstAndRegistrationOrderForEqual() throws Throwable {
+        this.engine.addButtonEventListener(listener("low", -1), 0);
+        this.engine.addButtonEventListener(listener("high", -1), 10);
+        this.engine.addButtonEventListener(listener("mid 1", -1), 5);
+        this.engine.addButtonEventListener(listener("mid 2", -1), 5);
+        this.state(BUTTON_1);
+        Assertions.assertEquals(List.of("high", "mid 1", "mid 2", "low", "controller press1", "button " + SdlControllerEngine.SDL_BUTTON_1), this.received);
+    }
+
+    @Test
+    void consumedEventStopsDispatch() throws Throwable {
+        this.engine.addButtonEventListener(listener("game", -1), 0);
+        this.engine.addButtonEventListener(listener("pause menu", SdlControllerEngine.SDL_BUTTON_START), 10);
+        this.state(START);
+        Assertions.assertEquals(List.of("pause menu"), this.received);
+    }
+
+    @Test
+    void consumptionOnlyAppliesToOneEvent() throws Throwable {
+        this.engine.addButtonEventListener(listener("game", -1), 0);
+        this.engine.addButtonEventListener(listener("pause menu", SdlControllerEngine.SDL_BUTTON_START), 10);
+        this.state(START);
+        this.received.clear();
+        // The release is not consumed, and another button pressed in the same cycle is not affected by a consumption.
+        this.state(BUTTON_1);
+        Assertions.assertEquals(List.of(
+                "pause menu", "game", "controller press1", "button " + SdlControllerEngine.SDL_BUTTON_1,
+                "pause menu", "game", "controller releaseStart", "button " + SdlControllerEngine.SDL_BUTTON_START), this.received);
+    }
+
+    @Test
+    void removedListenerNotCalled() throws Throwable {
+        var menu = listener("pause menu", SdlControllerEngine.SDL_BUTTON_START);
+        this.engine.addButtonEventListener(menu, 10);
+        Assertions.assertTrue(this.engine.removeButtonEventListener(menu));
+        this.state(START);
+        Assertions.assertEquals(List.of("controller pressStart", "button " + SdlControllerEngine.SDL_BUTTON_START), this.received);
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package be.yildizgames.module.controller.sdl;
+
+import be.yildizgames.module.controller.Controller;
+import be.yildizgames.module.controller.ControllerEngineStatusListener;
+import be.yildizgames.module.controller.ControllerListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drive the EVENT_DRIVEN mode with the stub native library, whose events are scripted by the tests.
+ *
+ * @author Grégory Van den Borre
+ */
+@DisabledOnOs(OS.WINDOWS)
+class SdlControllerEngineEventDrivenTest {
+
+    private static SdlStubLibrary stub;
+
+    private final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+
+    private SdlControllerEngine engine;
+
+    private Thread thread;
+
+    @BeforeAll
+    static void buildStub() throws Exception {
+        stub = SdlStubLibrary.get();
+    }
+
+    @BeforeEach
+    void start() throws InterruptedException {
+        var started = new CountDownLatch(1);
+        this.engine = new SdlControllerEngine(stub.path, stub.path).setPollMode(SdlPollMode.EVENT_DRIVEN);
+        this.engine.addEngineStatusListener(new ControllerEngineStatusListener() {
+            @Override
+            public void started() {
+                started.countDown();
+            }
+        });
+        this.engine.addControllerListener(new ControllerListener() {
+            @Override
+            public void controllerConnected(Controller controller) {
+                received.add("connected " + controller.id());
+            }
+
+            @Override
+            public void controllerDisconnected(Controller controller) {
+                received.add("disconnected " + controller.id());
+            }
+
+            @Override
+            public void controllerPress1(Controller controller) {
+                received.add("press1 " + controller.id());
+            }
+
+            @Override
+            public void controllerRelease1(Controller controller) {
+                received.add("release1 " + controller.id());
+            }
+
+            @Override
+            public void controllerPressStart(Controller controller) {
+                received.add("pressStart " + controller.id());
+            }
+        });
+        this.thread = new Thread(this.engine);
+        this.thread.start();
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+    }
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        this.engine.close();
+        this.thread.join(5000);
+        Assertions.assertFalse(this.thread.isAlive());
+    }
+
+    @Test
+    void scriptedEventsAreDispatched() throws Throwable {
+        stub.connect(3);
+        Assertions.assertEquals("connected 3", this.next());
+        stub.setState(3, 1 << SdlControllerEngine.SDL_BUTTON_1);
+        Assertions.assertEquals("press1 3", this.next());
+        stub.setState(3, (1 << SdlControllerEngine.SDL_BUTTON_1) | (1 << SdlControllerEngine.SDL_BUTTON_START));
+        Assertions.assertEquals("pressStart 3", this.next());
+        stub.setState(3, 1 << SdlControllerEngine.SDL_BUTTON_START);
+        Assertions.assertEquals("release1 3", this.next());
+        stub.disconnect(3);
+        Assertions.assertEquals("disconnected 3", this.next());
+    }
+
+    @Test
+    void noPollWithoutEvent() throws Throwable {
+        // Longer than several wait timeouts, none of them must lead to a poll.
+        Thread.sleep(350);
+        Assertions.assertEquals(0, stub.updateCount());
+        stub.connect(1);
+        Assertions.assertEquals("connected 1", this.next());
+        Assertions.assertTrue(stub.updateCount() > 0);
+    }
+
+    @Test
+    void connectionVisibleFromListener() throws Throwable {
+        var seen = new LinkedBlockingQueue<Integer>();
+        this.engine.addControllerListener(new ControllerListener() {
+            @Override
+            public void controllerConnected(Controller controller) {
+                seen.add(engine.getControllers().size());
+            }
+
+            @Override
+            public void controllerDisconnected(Controller controller) {
+                seen.add(engine.getControllers().size());
+            }
+        });
+        stub.connect(3);
+        Assertions.assertEquals(1, seen.poll(5, TimeUnit.SECONDS));
+        stub.disconnect(3);
+        Assertions.assertEquals(0, seen.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void interruptStopsTheEngine() throws InterruptedException {
+        this.thread.interrupt();
+        this.thread.join(5000);
+        Assertions.assertFalse(this.thread.isAlive());
+    }
+
+    private String next() throws InterruptedException {
+        return this.received.poll(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package be.yildizgames.module.controller.sdl;
+
+import be.yildizgames.module.controller.Controller;
+import be.yildizgames.module.controller.ControllerListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Diff of the device list, driven by the host with pollOnce on the stub native library.
+ *
+ * @author Grégory Van den Borre
+ */
+@DisabledOnOs(OS.WINDOWS)
+class SdlControllerEngineHotplugTest {
+
+    private static SdlStubLibrary stub;
+
+    private final List<String> received = new ArrayList<>();
+
+    private final List<Controller> connected = new ArrayList<>();
+
+    private SdlControllerEngine engine;
+
+    @BeforeAll
+    static void buildStub() throws Exception {
+        stub = SdlStubLibrary.get();
+    }
+
+    @BeforeEach
+    void open() {
+        // Check the device list on every poll.
+        this.engine = new SdlControllerEngine(stub.path, stub.path).setHotplugInterval(Duration.ZERO);
+        this.engine.addControllerListener(new ControllerListener() {
+            @Override
+            public void controllerConnected(Controller controller) {
+                received.add("connected " + controller.id());
+                connected.add(controller);
+            }
+
+            @Override
+            public void controllerDisconnected(Controller controller) {
+                received.add("disconnected " + controller.id());
+            }
+        });
+        this.engine.open();
+    }
+
+    @AfterEach
+    void close() {
+        this.engine.close();
+    }
+
+    private Set<Integer> ids() {
+        return this.engine.getControllers().stream().map(Controller::id).collect(Collectors.toSet());
+    }
+
+    @Test
+    void connectAndDisconnectInOneChange() throws Throwable {
+        stub.connect(1);
+        stub.connect(2);
+        this.engine.pollOnce();
+        Assertions.assertEquals(List.of("connected 1", "connected 2"), this.received);
+        this.received.clear();
+        stub.disconnect(1);
+        stub.connect(3);
+        this.engine.pollOnce();
+        Assertions.assertEquals(List.of("disconnected 1", "connected 3"), this.received);
+        Assertions.assertEquals(Set.of(2, 3), this.ids());
+    }
+
+    @Test
+    void unchangedListNotifiesNothing() throws Throwable {
+        stub.connect(4);
+        this.engine.pollOnce();
+        this.received.clear();
+        this.engine.pollOnce();
+        this.engine.pollOnce();
+        Assertions.assertTrue(this.received.isEmpty());
+    }
+
+    @Test
+    void idConnectedAgainIsNewController() throws Throwable {
+        stub.connect(5);
+        stub.connect(6);
+        this.engine.pollOnce();
+        stub.disconnect(5);
+        this.engine.pollOnce();
+        stub.connect(5);
+        this.engine.pollOnce();
+        Assertions.assertEquals(List.of("connected 5", "connected 6", "disconnected 5", "connected 5"), this.received);
+        Assertions.assertNotSame(this.connected.get(0), this.connected.get(2));
+        Assertions.assertEquals(Set.of(5, 6), this.ids());
+        // The new instance receives the input of the id.
+        stub.setState(5, 1 << SdlControllerEngine.SDL_BUTTON_1);
+        this.engine.pollOnce();
+        Assertions.assertTrue(this.engine.isPressed(this.connected.get(2), SdlControllerEngine.SDL_BUTTON_1));
+        Assertions.assertFalse(this.engine.isPressed(this.connected.get(0), SdlControllerEngine.SDL_BUTTON_1));
+    }
+
+    @Test
+    void churn() throws Throwable {
+        var random = new Random(7);
+        var expected = new HashSet<Integer>();
+        var connections = 0;
+        var disconnections = 0;
+        for (int cycle = 0; cycle < 200; cycle++) {
+            var before = new HashSet<>(expected);
+            // Several connections and disconnections in the same change, ids never reused as SDL does.
+            for (int change = 0; change < 4; change++) {
+                if (!expected.isEmpty() && random.nextBoolean()) {
+                    var id = expected.stream().skip(random.nextInt(expected.size())).findFirst().orElseThrow();
+                    stub.disconnect(id);
+                    expected.remove(id);
+                } else if (expected.size() < 32) {
+                    var id = cycle * 4 + change;
+                    stub.connect(id);
+                    expected.add(id);
+                }
+            }
+            this.engine.pollOnce();
+            Assertions.assertEquals(expected, this.ids());
+            // A controller connected and disconnected within the same change is never seen.
+            connections += (int) expected.stream().filter(id -> !before.contains(id)).count();
+            disconnections += (int) before.stream().filter(id -> !expected.contains(id)).count();
+        }
+        Assertions.assertEquals(connections, this.received.stream().filter(s -> s.startsWith("connected")).count());
+        Assertions.assertEquals(disconnections, this.received.stream().filter(s -> s.startsWith("disconnected")).count());
+    }
+}
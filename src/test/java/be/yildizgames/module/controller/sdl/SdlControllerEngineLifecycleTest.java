@@ -0,0 +1,101 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package be.yildizgames.module.controller.sdl;
+
+import be.yildizgames.module.controller.ControllerEngineStatusListener;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Open and close the engine on the stub native library.
+ *
+ * @author Grégory Van den Borre
+ */
+@DisabledOnOs(OS.WINDOWS)
+class SdlControllerEngineLifecycleTest {
+
+    private static SdlStubLibrary stub;
+
+    @BeforeAll
+    static void buildStub() throws Exception {
+        stub = SdlStubLibrary.get();
+    }
+
+    /**
+     * @return An engine whose started listener throws the first time only.
+     */
+    private static SdlControllerEngine failingOnce() {
+        var failed = new AtomicBoolean();
+        var engine = new SdlControllerEngine(stub.path, stub.path);
+        engine.addEngineStatusListener(new ControllerEngineStatusListener() {
+            @Override
+            public void started() {
+                if (failed.compareAndSet(false, true)) {
+                    throw new IllegalStateException("started failure");
+                }
+            }
+        });
+        return engine;
+    }
+
+    @Nested
+    class Open {
+
+        @Test
+        void happyFlow() throws Throwable {
+            var engine = new SdlControllerEngine(stub.path, stub.path);
+            engine.open();
+            Assertions.assertTrue(stub.isInitialized());
+            engine.close();
+            Assertions.assertFalse(stub.isInitialized());
+        }
+
+        @Test
+        void failureTerminatesNativeSide() throws Throwable {
+            var engine = failingOnce();
+            Assertions.assertThrows(IllegalStateException.class, engine::open);
+            Assertions.assertFalse(stub.isInitialized());
+            engine.open();
+            Assertions.assertTrue(stub.isInitialized());
+            engine.close();
+            Assertions.assertFalse(stub.isInitialized());
+        }
+    }
+
+    @Nested
+    class Run {
+
+        @Test
+        void failureKeepsHostDrivenCloseWorking() throws Throwable {
+            var engine = failingOnce();
+            Assertions.assertThrows(IllegalStateException.class, engine::run);
+            engine.open();
+            engine.close();
+            Assertions.assertFalse(stub.isInitialized());
+            // The session was released by close, so it can be opened again.
+            engine.open();
+            engine.close();
+        }
+    }
+}
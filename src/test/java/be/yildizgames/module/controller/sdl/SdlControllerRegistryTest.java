@@ -0,0 +1,237 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.controller.sdl;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class SdlControllerRegistryTest {
+
+    private static SdlController controller(int id) {
+        return new SdlController("test", "guid", id);
+    }
+
+    @Nested
+    class Add {
+
+        @Test
+        void happyFlow() {
+            var registry = new SdlControllerRegistry();
+            var controller = controller(5);
+            var slot = registry.add(controller);
+            Assertions.assertEquals(0, slot);
+            Assertions.assertEquals(slot, controller.slot);
+            Assertions.assertSame(controller, registry.get(5));
+            Assertions.assertSame(controller, registry.controller(slot));
+            Assertions.assertEquals(1, registry.size());
+            Assertions.assertEquals(1, registry.limit());
+        }
+
+        @Test
+        void stateIsReset() {
+            var registry = new SdlControllerRegistry();
+            var slot = registry.add(controller(1));
+            registry.state(slot, 0xFFL);
+            registry.remove(1);
+            Assertions.assertEquals(slot, registry.add(controller(2)));
+            Assertions.assertEquals(0L, registry.state(slot));
+        }
+
+        @Test
+        void rehash() {
+            var registry = new SdlControllerRegistry();
+            for (int id = 0; id < 200; id++) {
+                registry.add(controller(id * 17));
+            }
+            Assertions.assertEquals(200, registry.size());
+            Assertions.assertEquals(200, registry.limit());
+            for (int id = 0; id < 200; id++) {
+                Assertions.assertEquals(id, registry.slotOf(id * 17));
+                Assertions.assertEquals(id * 17, registry.controller(id).id());
+            }
+            Assertions.assertEquals(-1, registry.slotOf(1));
+        }
+    }
+
+    @Nested
+    class InvalidId {
+
+        @Test
+        void addNegative() {
+            var registry = new SdlControllerRegistry();
+            Assertions.assertThrows(IllegalArgumentException.class, () -> registry.add(controller(-1)));
+            Assertions.assertEquals(0, registry.size());
+            Assertions.assertEquals(0, registry.limit());
+        }
+
+        @Test
+        void getNegative() {
+            var registry = new SdlControllerRegistry();
+            var controller = controller(2);
+            registry.add(controller);
+            registry.remove(2);
+            registry.add(controller(5));
+            Assertions.assertEquals(-1, registry.slotOf(-1));
+            Assertions.assertNull(registry.get(-1));
+        }
+
+        @Test
+        void removeNegative() {
+            var registry = new SdlControllerRegistry();
+            var controller = controller(5);
+            registry.add(controller);
+            Assertions.assertNull(registry.remove(-1));
+            Assertions.assertSame(controller, registry.get(5));
+            Assertions.assertEquals(1, registry.size());
+        }
+    }
+
+    @Nested
+    class Remove {
+
+        @Test
+        void happyFlow() {
+            var registry = new SdlControllerRegistry();
+            var controller = controller(3);
+            var slot = registry.add(controller);
+            Assertions.assertSame(controller, registry.remove(3));
+            Assertions.assertEquals(-1, controller.slot);
+            Assertions.assertNull(registry.get(3));
+            Assertions.assertNull(registry.controller(slot));
+            Assertions.assertEquals(0, registry.size());
+        }
+
+        @Test
+        void notRegistered() {
+            var registry = new SdlControllerRegistry();
+            registry.add(controller(3));
+            Assertions.assertNull(registry.remove(4));
+            Assertions.assertEquals(1, registry.size());
+        }
+
+        @Test
+        void slotIsReused() {
+            var registry = new SdlControllerRegistry();
+            registry.add(controller(10));
+            var slot = registry.add(controller(11));
+            registry.add(controller(12));
+            registry.remove(11);
+            Assertions.assertEquals(slot, registry.add(controller(13)));
+            Assertions.assertEquals(3, registry.limit());
+            Assertions.assertEquals(slot, registry.slotOf(13));
+            Assertions.assertEquals(-1, registry.slotOf(11));
+        }
+
+        @Test
+        void otherSlotsAreStable() {
+            var registry = new SdlControllerRegistry();
+            for (int id = 0; id < 20; id++) {
+                registry.add(controller(id));
+            }
+            for (int id = 0; id < 20; id += 2) {
+                registry.remove(id);
+            }
+            for (int id = 1; id < 20; id += 2) {
+                Assertions.assertEquals(id, registry.slotOf(id));
+            }
+        }
+    }
+
+    @Nested
+    class Churn {
+
+        /**
+         * Ids are drawn from a small range, so they collide in the hash table, and are added and removed at random,
+         * exercising the backward shift deletion and the rehash against a reference map.
+         */
+        @Test
+        void matchesReferenceMap() {
+            var random = new Random(42);
+            var registry = new SdlControllerRegistry();
+            Map<Integer, SdlController> reference = new HashMap<>();
+            for (int i = 0; i < 20_000; i++) {
+                var id = random.nextInt(96);
+                if (reference.containsKey(id)) {
+                    Assertions.assertSame(reference.remove(id), registry.remove(id));
+                } else {
+                    var controller = controller(id);
+                    registry.add(controller);
+                    reference.put(id, controller);
+                }
+                if (i % 97 == 0) {
+                    assertSameContent(registry, reference);
+                }
+            }
+            assertSameContent(registry, reference);
+        }
+
+        @Test
+        void collidingIdsOfSameBucket() {
+            var registry = new SdlControllerRegistry();
+            var ids = new ArrayList<Integer>();
+            // 8 ids with the same home position in the initial table of 16 entries, one probe sequence for all of them.
+            var bucket = SdlControllerRegistry.mix(0) & 15;
+            for (int id = 0; ids.size() < 8; id++) {
+                if ((SdlControllerRegistry.mix(id) & 15) == bucket) {
+                    ids.add(id);
+                    registry.add(controller(id));
+                }
+            }
+            registry.remove(ids.get(0));
+            registry.remove(ids.get(3));
+            for (int i = 0; i < ids.size(); i++) {
+                var present = i != 0 && i != 3;
+                Assertions.assertEquals(present, registry.get(ids.get(i)) != null, "id " + ids.get(i));
+            }
+            registry.add(controller(ids.get(0)));
+            for (var id : ids.subList(4, ids.size())) {
+                registry.remove(id);
+            }
+            Assertions.assertNotNull(registry.get(ids.get(0)));
+            Assertions.assertNotNull(registry.get(ids.get(1)));
+            Assertions.assertNotNull(registry.get(ids.get(2)));
+            Assertions.assertEquals(3, registry.size());
+        }
+
+        private void assertSameContent(SdlControllerRegistry registry, Map<Integer, SdlController> reference) {
+            Assertions.assertEquals(reference.size(), registry.size());
+            var slots = new HashSet<Integer>();
+            for (var entry : reference.entrySet()) {
+                var slot = registry.slotOf(entry.getKey());
+                Assertions.assertEquals(entry.getValue().slot, slot);
+                Assertions.assertSame(entry.getValue(), registry.controller(slot));
+                Assertions.assertTrue(slots.add(slot));
+                Assertions.assertTrue(slot < registry.limit());
+            }
+            for (int id = 0; id < 96; id++) {
+                if (!reference.containsKey(id)) {
+                    Assertions.assertEquals(-1, registry.slotOf(id));
+                }
+            }
+        }
+    }
+}
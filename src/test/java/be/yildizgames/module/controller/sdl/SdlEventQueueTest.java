@@ -0,0 +1,175 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.controller.sdl;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class SdlEventQueueTest {
+
+    private static long button(int button) {
+        return SdlInputEvent.encode(SdlInputEvent.TYPE_BUTTON, 0, button, true, 0);
+    }
+
+    private static List<Long> drainAll(SdlEventQueue queue) {
+        var result = new ArrayList<Long>();
+        queue.drain((e, n, t, c) -> result.add(e));
+        return result;
+    }
+
+    @Nested
+    class Constructor {
+
+        @Test
+        void capacityIsRoundedToPowerOfTwo() {
+            Assertions.assertEquals(8, new SdlEventQueue(5).remaining());
+            Assertions.assertEquals(8, new SdlEventQueue(8).remaining());
+            Assertions.assertEquals(1, new SdlEventQueue(1).remaining());
+        }
+
+        @Test
+        void zeroCapacity() {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> new SdlEventQueue(0));
+        }
+    }
+
+    @Nested
+    class Offer {
+
+        @Test
+        void full() {
+            var queue = new SdlEventQueue(4);
+            for (int i = 0; i < 4; i++) {
+                Assertions.assertTrue(queue.offer(button(i), i, i, null));
+            }
+            Assertions.assertEquals(0, queue.remaining());
+            Assertions.assertFalse(queue.offer(button(4), 4, 4, null));
+            Assertions.assertEquals(List.of(button(0), button(1), button(2), button(3)), drainAll(queue));
+            Assertions.assertTrue(queue.isEmpty());
+        }
+
+        @Test
+        void timestampsAndControllerAreKept() {
+            var queue = new SdlEventQueue(2);
+            var controller = new SdlController("test", "guid", 1);
+            queue.offer(button(3), 123L, 45L, controller);
+            queue.drain((e, n, t, c) -> {
+                Assertions.assertEquals(button(3), e);
+                Assertions.assertEquals(123L, n);
+                Assertions.assertEquals(45L, t);
+                Assertions.assertSame(controller, c);
+            });
+        }
+
+        @Test
+        void wrapAround() {
+            var queue = new SdlEventQueue(2);
+            for (int i = 0; i < 10; i++) {
+                queue.offer(button(i), 0, 0, null);
+                Assertions.assertEquals(List.of(button(i)), drainAll(queue));
+            }
+        }
+    }
+
+    @Nested
+    class DropOldest {
+
+        @Test
+        void happyFlow() {
+            var queue = new SdlEventQueue(2);
+            queue.offer(button(0), 0, 0, null);
+            queue.offer(button(1), 0, 0, null);
+            queue.dropOldest();
+            Assertions.assertTrue(queue.offer(button(2), 0, 0, null));
+            Assertions.assertEquals(List.of(button(1), button(2)), drainAll(queue));
+        }
+
+        @Test
+        void empty() {
+            var queue = new SdlEventQueue(2);
+            queue.dropOldest();
+            Assertions.assertTrue(queue.dropOldestButton());
+            Assertions.assertEquals(2, queue.remaining());
+        }
+
+        @Test
+        void connectionEventIsKept() {
+            var queue = new SdlEventQueue(2);
+            var connected = SdlInputEvent.encode(SdlInputEvent.TYPE_CONNECTED, 0, 0, false, 0);
+            queue.offer(connected, 0, 0, null);
+            queue.offer(button(1), 0, 0, null);
+            Assertions.assertFalse(queue.dropOldestButton());
+            Assertions.assertEquals(List.of(connected, button(1)), drainAll(queue));
+        }
+
+        @Test
+        void buttonEventIsDropped() {
+            var queue = new SdlEventQueue(2);
+            queue.offer(button(0), 0, 0, null);
+            queue.offer(button(1), 0, 0, null);
+            Assertions.assertTrue(queue.dropOldestButton());
+            Assertions.assertEquals(List.of(button(1)), drainAll(queue));
+        }
+
+        /**
+         * The producer keeps discarding the oldest entry while a consumer drains: no entry may be consumed twice or
+         * out of order, and the last entry is never lost.
+         */
+        @Test
+        void concurrentDrain() throws InterruptedException {
+            var queue = new SdlEventQueue(8);
+            var count = 500_000L;
+            var received = new long[1];
+            var last = new long[]{-1};
+            var error = new AtomicBoolean();
+            var done = new AtomicBoolean();
+            SdlEventQueue.EventConsumer consumer = (e, n, t, c) -> {
+                if (n <= last[0]) {
+                    error.set(true);
+                }
+                last[0] = n;
+                received[0]++;
+            };
+            var thread = new Thread(() -> {
+                while (!done.get()) {
+                    queue.drain(consumer);
+                }
+                queue.drain(consumer);
+            });
+            thread.start();
+            for (long i = 0; i < count; i++) {
+                while (!queue.offer(button(0), i, 0, null)) {
+                    queue.dropOldest();
+                }
+            }
+            done.set(true);
+            thread.join();
+            Assertions.assertFalse(error.get(), "Entry consumed twice or out of order");
+            Assertions.assertEquals(count - 1, last[0]);
+            Assertions.assertTrue(received[0] <= count);
+            Assertions.assertTrue(queue.isEmpty());
+        }
+    }
+}
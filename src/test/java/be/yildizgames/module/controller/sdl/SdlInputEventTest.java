@@ -0,0 +1,92 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.controller.sdl;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class SdlInputEventTest {
+
+    private static final long TIMESTAMP_MASK = (1L << 43) - 1;
+
+    @Nested
+    class Encode {
+
+        @Test
+        void happyFlow() {
+            var event = SdlInputEvent.encode(SdlInputEvent.TYPE_BUTTON, 3, 9, true, 12_345_000L);
+            Assertions.assertEquals(SdlInputEvent.TYPE_BUTTON, SdlInputEvent.type(event));
+            Assertions.assertEquals(3, SdlInputEvent.slot(event));
+            Assertions.assertEquals(9, SdlInputEvent.button(event));
+            Assertions.assertTrue(SdlInputEvent.isPressed(event));
+            Assertions.assertEquals(12_345L, SdlInputEvent.timestampMicros(event));
+        }
+
+        @Test
+        void maxValues() {
+            var event = SdlInputEvent.encode(SdlInputEvent.TYPE_DISCONNECTED, 4095, 63, true, TIMESTAMP_MASK * 1_000L);
+            Assertions.assertEquals(SdlInputEvent.TYPE_DISCONNECTED, SdlInputEvent.type(event));
+            Assertions.assertEquals(4095, SdlInputEvent.slot(event));
+            Assertions.assertEquals(63, SdlInputEvent.button(event));
+            Assertions.assertTrue(SdlInputEvent.isPressed(event));
+            Assertions.assertEquals(TIMESTAMP_MASK, SdlInputEvent.timestampMicros(event));
+        }
+
+        @Test
+        void minValues() {
+            var event = SdlInputEvent.encode(SdlInputEvent.TYPE_BUTTON, 0, 0, false, 0L);
+            Assertions.assertEquals(0L, event);
+            Assertions.assertFalse(SdlInputEvent.isPressed(event));
+        }
+
+        @Test
+        void eachTypeRoundTrips() {
+            for (var type : new int[]{SdlInputEvent.TYPE_BUTTON, SdlInputEvent.TYPE_CONNECTED, SdlInputEvent.TYPE_DISCONNECTED}) {
+                var event = SdlInputEvent.encode(type, 4095, 63, false, -1L);
+                Assertions.assertEquals(type, SdlInputEvent.type(event));
+                Assertions.assertEquals(4095, SdlInputEvent.slot(event));
+                Assertions.assertEquals(63, SdlInputEvent.button(event));
+                Assertions.assertFalse(SdlInputEvent.isPressed(event));
+            }
+        }
+
+        @Test
+        void negativeNanoTimeIsTruncatedTo43Bits() {
+            var nanoTime = -5_000_000L;
+            var event = SdlInputEvent.encode(SdlInputEvent.TYPE_BUTTON, 12, 5, true, nanoTime);
+            Assertions.assertEquals((nanoTime / 1_000L) & TIMESTAMP_MASK, SdlInputEvent.timestampMicros(event));
+            Assertions.assertEquals(12, SdlInputEvent.slot(event));
+            Assertions.assertEquals(5, SdlInputEvent.button(event));
+            Assertions.assertTrue(SdlInputEvent.isPressed(event));
+            Assertions.assertEquals(SdlInputEvent.TYPE_BUTTON, SdlInputEvent.type(event));
+        }
+
+        @Test
+        void largeNanoTimeIsTruncatedTo43Bits() {
+            var nanoTime = Long.MAX_VALUE;
+            var event = SdlInputEvent.encode(SdlInputEvent.TYPE_CONNECTED, 1, 2, false, nanoTime);
+            Assertions.assertEquals((nanoTime / 1_000L) & TIMESTAMP_MASK, SdlInputEvent.timestampMicros(event));
+            Assertions.assertEquals(SdlInputEvent.TYPE_CONNECTED, SdlInputEvent.type(event));
+            Assertions.assertEquals(1, SdlInputEvent.slot(event));
+            Assertions.assertEquals(2, SdlInputEvent.button(event));
+        }
+    }
+}
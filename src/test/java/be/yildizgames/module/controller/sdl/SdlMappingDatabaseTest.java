@@ -0,0 +1,115 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.controller.sdl;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class SdlMappingDatabaseTest {
+
+    private static final String BUNDLED_GUID = "030044f05e040000e002000000007200";
+
+    @TempDir
+    Path folder;
+
+    private Path file(String name, String content) throws IOException {
+        return Files.writeString(this.folder.resolve(name), content);
+    }
+
+    @Nested
+    class Load {
+
+        @Test
+        void bundled() {
+            var database = SdlMappingDatabase.load(List.of());
+            Assertions.assertEquals("8BitDo Arcade Stick Switch", database.name(BUNDLED_GUID));
+            Assertions.assertNull(database.name("00000000000000000000000000000000"));
+        }
+
+        @Test
+        void commentsAndEmptyLinesAreSkipped() throws IOException {
+            var database = SdlMappingDatabase.load(List.of(file("db.txt", "# 0300aaaa,Comment,a:b0,\n\n0300bbbb,Pad,a:b0,\n")));
+            Assertions.assertNull(database.name("# 0300aaaa"));
+            Assertions.assertEquals("Pad", database.name("0300bbbb"));
+            Assertions.assertEquals(2, database.size());
+        }
+
+        @Test
+        void malformedLinesAreSkipped() throws IOException {
+            var database = SdlMappingDatabase.load(List.of(file("db.txt", "0300aaaa\n0300bbbb,NoComma\n,\n0300cccc,Pad,\n")));
+            Assertions.assertNull(database.name("0300aaaa"));
+            Assertions.assertNull(database.name("0300bbbb"));
+            Assertions.assertEquals("Pad", database.name("0300cccc"));
+        }
+
+        @Test
+        void entryWithoutMapping() throws IOException {
+            var database = SdlMappingDatabase.load(List.of(file("db.txt", "0300aaaa, Spaced Name ,\n")));
+            Assertions.assertEquals("Spaced Name", database.name("0300aaaa"));
+        }
+
+        @Test
+        void otherPlatformsAreSkipped() throws IOException {
+            var database = SdlMappingDatabase.load(List.of(file("db.txt",
+                    "0300aaaa,Linux Pad,a:b0,platform:Linux,\n"
+                            + "0300bbbb,Windows Pad,a:b0,platform:Windows,\n"
+                            + "0300cccc,Mac Pad,a:b0,platform:Mac OS X,\n"
+                            + "0300dddd,Any Pad,a:b0,\n")));
+            var found = 0;
+            for (var guid : new String[]{"0300aaaa", "0300bbbb", "0300cccc"}) {
+                if (database.name(guid) != null) {
+                    found++;
+                }
+            }
+            Assertions.assertEquals(1, found);
+            Assertions.assertEquals("Any Pad", database.name("0300dddd"));
+        }
+
+        @Test
+        void guidIsCaseInsensitive() throws IOException {
+            var database = SdlMappingDatabase.load(List.of(file("db.txt", "0300ABCD,Pad,a:b0,\n")));
+            Assertions.assertEquals("Pad", database.name("0300abcd"));
+            Assertions.assertEquals("Pad", database.name("0300ABCD"));
+        }
+
+        @Test
+        void laterFilesOverrideEarlierOnes() throws IOException {
+            var first = file("first.txt", "0300aaaa,First,a:b0,\n0300bbbb,Kept,a:b0,\n");
+            var second = file("second.txt", "0300AAAA,Second,a:b0,\n" + BUNDLED_GUID + ",Override,a:b0,\n");
+            var database = SdlMappingDatabase.load(List.of(first, second));
+            Assertions.assertEquals("Second", database.name("0300aaaa"));
+            Assertions.assertEquals("Kept", database.name("0300bbbb"));
+            Assertions.assertEquals("Override", database.name(BUNDLED_GUID));
+        }
+
+        @Test
+        void missingFile() {
+            var missing = folder.resolve("missing.txt");
+            Assertions.assertThrows(IllegalStateException.class, () -> SdlMappingDatabase.load(List.of(missing)));
+        }
+    }
+}
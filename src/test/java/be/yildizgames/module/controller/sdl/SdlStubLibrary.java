@@ -0,0 +1,133 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package be.yildizgames.module.controller.sdl;
+
+import org.junit.jupiter.api.Assumptions;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.SymbolLookup;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Stub native library built with gcc from controller-stub.c, once per test run, and the functions scripting its
+ * events. The tests using it are skipped when gcc is not available.
+ *
+ * @author Grégory Van den Borre
+ */
+final class SdlStubLibrary {
+
+    private static SdlStubLibrary instance;
+
+    /**
+     * Path of the built library, to give to the engine for both the native and the SDL library.
+     */
+    final Path path;
+
+    private final MethodHandle connect;
+
+    private final MethodHandle disconnect;
+
+    private final MethodHandle setState;
+
+    private final MethodHandle updateCount;
+
+    private final MethodHandle initialized;
+
+    private SdlStubLibrary(Path path) {
+        super();
+        this.path = path;
+        var linker = Linker.nativeLinker();
+        var library = SymbolLookup.libraryLookup(path, Arena.global());
+        this.connect = linker.downcallHandle(library.find("stubConnect").orElseThrow(), FunctionDescriptor.ofVoid(ValueLayout.JAVA_INT));
+        this.disconnect = linker.downcallHandle(library.find("stubDisconnect").orElseThrow(), FunctionDescriptor.ofVoid(ValueLayout.JAVA_INT));
+        this.setState = linker.downcallHandle(library.find("stubSetState").orElseThrow(), FunctionDescriptor.ofVoid(ValueLayout.JAVA_INT, ValueLayout.JAVA_INT));
+        this.updateCount = linker.downcallHandle(library.find("stubUpdateCount").orElseThrow(), FunctionDescriptor.of(ValueLayout.JAVA_INT));
+        this.initialized = linker.downcallHandle(library.find("stubIsInitialized").orElseThrow(), FunctionDescriptor.of(ValueLayout.JAVA_BOOLEAN));
+    }
+
+    /**
+     * Build the stub on the first call, or skip the calling test if it cannot be built.
+     * @return The stub library.
+     */
+    static synchronized SdlStubLibrary get() throws IOException, InterruptedException {
+        if (instance == null) {
+            var directory = Files.createTempDirectory("controller-stub");
+            var source = directory.resolve("controller-stub.c");
+            try (var in = SdlStubLibrary.class.getResourceAsStream("controller-stub.c")) {
+                Files.copy(in, source);
+            }
+            var library = directory.resolve("libcontroller-stub.so");
+            int exit;
+            try {
+                exit = new ProcessBuilder("gcc", "-shared", "-fPIC", "-o", library.toString(), source.toString(), "-lpthread")
+                        .inheritIO()
+                        .start()
+                        .waitFor();
+            } catch (IOException e) {
+                exit = -1;
+            }
+            directory.toFile().deleteOnExit();
+            source.toFile().deleteOnExit();
+            library.toFile().deleteOnExit();
+            Assumptions.assumeTrue(exit == 0, "gcc is required to build the stub native library.");
+            instance = new SdlStubLibrary(library);
+        }
+        return instance;
+    }
+
+    /**
+     * Add a controller to the device list and signal an event.
+     */
+    void connect(int id) throws Throwable {
+        this.connect.invokeExact(id);
+    }
+
+    /**
+     * Remove a controller from the device list and signal an event.
+     */
+    void disconnect(int id) throws Throwable {
+        this.disconnect.invokeExact(id);
+    }
+
+    /**
+     * Set the button state of a connected controller and signal an event.
+     */
+    void setState(int id, int state) throws Throwable {
+        this.setState.invokeExact(id, state);
+    }
+
+    /**
+     * @return The number of calls to update since initControls.
+     */
+    int updateCount() throws Throwable {
+        return (int) this.updateCount.invokeExact();
+    }
+
+    /**
+     * @return true if initControls was called without terminateControls.
+     */
+    boolean isInitialized() throws Throwable {
+        return (boolean) this.initialized.invokeExact();
+    }
+}
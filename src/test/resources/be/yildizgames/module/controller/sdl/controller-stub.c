@@ -0,0 +1,184 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2022-2023 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+/*
+ * Stub of libcontroller-sdl exporting the symbols used by SdlControllerEngine, without SDL.
+ * Events are scripted by the tests through the stub* functions, each one wakes up a pending waitEvent.
+ */
+
+#include <pthread.h>
+#include <stdbool.h>
+#include <time.h>
+
+#define MAX_CONTROLLERS 64
+
+static pthread_mutex_t lock = PTHREAD_MUTEX_INITIALIZER;
+static pthread_cond_t eventReceived = PTHREAD_COND_INITIALIZER;
+
+static int ids[MAX_CONTROLLERS];
+static int states[MAX_CONTROLLERS];
+static int count;
+static int published[MAX_CONTROLLERS];
+static int publishedCount;
+static bool listChanged;
+static bool pendingEvent;
+static int updates;
+static bool initialized;
+
+static int indexOf(int id) {
+    for (int i = 0; i < count; i++) {
+        if (ids[i] == id) {
+            return i;
+        }
+    }
+    return -1;
+}
+
+static void signalEvent(void) {
+    pendingEvent = true;
+    pthread_cond_signal(&eventReceived);
+}
+
+void initControls(void) {
+    pthread_mutex_lock(&lock);
+    count = 0;
+    publishedCount = 0;
+    listChanged = false;
+    pendingEvent = false;
+    updates = 0;
+    initialized = true;
+    pthread_mutex_unlock(&lock);
+}
+
+void terminateControls(void) {
+    pthread_mutex_lock(&lock);
+    initialized = false;
+    pthread_mutex_unlock(&lock);
+}
+
+void update(void) {
+    pthread_mutex_lock(&lock);
+    updates++;
+    pthread_mutex_unlock(&lock);
+}
+
+int getControllerState(int id) {
+    pthread_mutex_lock(&lock);
+    int index = indexOf(id);
+    int state = index < 0 ? 0 : states[index];
+    pthread_mutex_unlock(&lock);
+    return state;
+}
+
+const char* getControllerName(int id) {
+    return "Stub controller";
+}
+
+const char* getControllerGuid(int id) {
+    return "00000000000000000000000000000000";
+}
+
+bool isControllerListChanged(void) {
+    pthread_mutex_lock(&lock);
+    bool changed = listChanged;
+    listChanged = false;
+    pthread_mutex_unlock(&lock);
+    return changed;
+}
+
+int getControllerNumber(void) {
+    pthread_mutex_lock(&lock);
+    for (int i = 0; i < count; i++) {
+        published[i] = ids[i];
+    }
+    publishedCount = count;
+    pthread_mutex_unlock(&lock);
+    return publishedCount;
+}
+
+int* getControllers(void) {
+    return published;
+}
+
+bool waitEvent(int timeoutMs) {
+    struct timespec deadline;
+    clock_gettime(CLOCK_REALTIME, &deadline);
+    deadline.tv_sec += timeoutMs / 1000;
+    deadline.tv_nsec += (long) (timeoutMs % 1000) * 1000000L;
+    if (deadline.tv_nsec >= 1000000000L) {
+        deadline.tv_sec++;
+        deadline.tv_nsec -= 1000000000L;
+    }
+    pthread_mutex_lock(&lock);
+    while (!pendingEvent) {
+        if (pthread_cond_timedwait(&eventReceived, &lock, &deadline) != 0) {
+            break;
+        }
+    }
+    bool received = pendingEvent;
+    pendingEvent = false;
+    pthread_mutex_unlock(&lock);
+    return received;
+}
+
+void stubConnect(int id) {
+    pthread_mutex_lock(&lock);
+    if (indexOf(id) < 0 && count < MAX_CONTROLLERS) {
+        ids[count] = id;
+        states[count] = 0;
+        count++;
+        listChanged = true;
+        signalEvent();
+    }
+    pthread_mutex_unlock(&lock);
+}
+
+void stubDisconnect(int id) {
+    pthread_mutex_lock(&lock);
+    int index = indexOf(id);
+    if (index >= 0) {
+        count--;
+        ids[index] = ids[count];
+        states[index] = states[count];
+        listChanged = true;
+        signalEvent();
+    }
+    pthread_mutex_unlock(&lock);
+}
+
+void stubSetState(int id, int state) {
+    pthread_mutex_lock(&lock);
+    int index = indexOf(id);
+    if (index >= 0) {
+        states[index] = state;
+        signalEvent();
+    }
+    pthread_mutex_unlock(&lock);
+}
+
+int stubUpdateCount(void) {
+    pthread_mutex_lock(&lock);
+    int result = updates;
+    pthread_mutex_unlock(&lock);
+    return result;
+}
+
+bool stubIsInitialized(void) {
+    pthread_mutex_lock(&lock);
+    bool result = initialized;
+    pthread_mutex_unlock(&lock);
+    return result;
+}